@@ -30,6 +30,7 @@ import org.jetbrains.jet.codegen.binding.CalculatedClosure;
 import org.jetbrains.jet.codegen.state.GenerationState;
 import org.jetbrains.jet.codegen.state.JetTypeMapper;
 import org.jetbrains.jet.lang.descriptors.*;
+import org.jetbrains.jet.lang.descriptors.impl.AnonymousFunctionDescriptor;
 import org.jetbrains.jet.lang.resolve.BindingContext;
 import org.jetbrains.jet.lang.resolve.DescriptorUtils;
 import org.jetbrains.jet.lang.resolve.calls.model.ResolvedCall;
@@ -490,6 +491,10 @@ public class AsmUtil {
         // Private method is not accessible from other classes, no assertions needed
         if (getVisibilityAccessFlag(descriptor) == ACC_PRIVATE) return;
 
+        // Local named functions are only called from Kotlin code, where the arguments are already checked by the compiler.
+        // Function literals are not skipped: they can be passed to Java code, which may invoke them with nulls
+        if (descriptor.getVisibility() == Visibilities.LOCAL && !(descriptor instanceof AnonymousFunctionDescriptor)) return;
+
         for (ValueParameterDescriptor parameter : descriptor.getValueParameters()) {
             JetType type = parameter.getReturnType();
             if (type == null || isNullableType(type)) continue;
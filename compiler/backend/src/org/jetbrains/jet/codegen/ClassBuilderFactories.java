@@ -16,12 +16,15 @@
 
 package org.jetbrains.jet.codegen;
 
+import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.asm4.ClassWriter;
 import org.jetbrains.asm4.util.TraceClassVisitor;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
 
 @SuppressWarnings("IOResourceOpenedButNotSafelyClosed")
 public class ClassBuilderFactories {
@@ -35,7 +38,7 @@ public class ClassBuilderFactories {
 
         @Override
         public ClassBuilder newClassBuilder() {
-            return new TraceBuilder(new BinaryClassWriter());
+            return new TraceBuilder(new BinaryClassWriter(new ClassHierarchy(Collections.<VirtualFile>emptyList())));
         }
 
         @Override
@@ -85,7 +88,15 @@ public class ClassBuilderFactories {
     private ClassBuilderFactories() {
     }
 
-    public static ClassBuilderFactory binaries(final boolean stubs) {
+    public static ClassBuilderFactory binaries(boolean stubs) {
+        return binaries(stubs, Collections.<VirtualFile>emptyList());
+    }
+
+    /**
+     * @param classpath roots used to look up superclasses of library classes when computing stack map frames
+     */
+    public static ClassBuilderFactory binaries(final boolean stubs, @NotNull List<VirtualFile> classpath) {
+        final ClassHierarchy hierarchy = new ClassHierarchy(classpath);
         return new ClassBuilderFactory() {
             @NotNull
             @Override
@@ -95,7 +106,7 @@ public class ClassBuilderFactories {
 
             @Override
             public ClassBuilder newClassBuilder() {
-                return new ClassBuilder.Concrete(new BinaryClassWriter());
+                return new ClassBuilder.Concrete(new BinaryClassWriter(hierarchy));
             }
 
             @Override
@@ -112,19 +123,23 @@ public class ClassBuilderFactories {
     }
 
     private static class BinaryClassWriter extends ClassWriter {
-        public BinaryClassWriter() {
+        private final ClassHierarchy hierarchy;
+
+        public BinaryClassWriter(@NotNull ClassHierarchy hierarchy) {
             super(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+            this.hierarchy = hierarchy;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            hierarchy.defineClass(access, name, superName, interfaces);
+            super.visit(version, access, name, signature, superName, interfaces);
         }
 
         @Override
         protected String getCommonSuperClass(String type1, String type2) {
-            try {
-                return super.getCommonSuperClass(type1, type2);
-            }
-            catch (Throwable t) {
-                // @todo we might need at some point do more sophisticated handling
-                return "java/lang/Object";
-            }
+            // ASM's default implementation loads both classes into the compiler with Class.forName
+            return hierarchy.getCommonSuperClass(type1, type2);
         }
     }
 
@@ -18,9 +18,11 @@ package org.jetbrains.jet.codegen;
 
 import com.google.common.collect.Lists;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.asm4.Type;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.asm4.*;
 import org.jetbrains.jet.codegen.state.GenerationState;
 import org.jetbrains.jet.codegen.state.GenerationStateAware;
 import org.jetbrains.jet.codegen.state.JetTypeMapperMode;
@@ -38,9 +40,13 @@ public final class ClassFileFactory extends GenerationStateAware {
     @NotNull private ClassBuilderFactory builderFactory;
 
     private final Map<FqName, NamespaceCodegen> ns2codegen = new HashMap<FqName, NamespaceCodegen>();
+    // Builders of classes already written to the sink are replaced with nulls
     private final Map<String, ClassBuilder> generators = new LinkedHashMap<String, ClassBuilder>();
     private boolean isDone = false;
 
+    @Nullable
+    private ClassFileSink sink;
+
     public ClassFileFactory(@NotNull GenerationState state) {
         super(state);
     }
@@ -51,6 +57,15 @@ public final class ClassFileFactory extends GenerationStateAware {
         this.builderFactory = builderFactory;
     }
 
+    /**
+     * Makes the factory hand each class over to the sink as soon as its generation is complete, and forget its builder.
+     * Must be called before generation starts; bytes of written classes can't be obtained from the factory afterwards.
+     */
+    public void setSink(@Nullable ClassFileSink sink) {
+        assert generators.isEmpty() : "Sink should be set before generation starts";
+        this.sink = sink;
+    }
+
     ClassBuilder newVisitor(String internalClassName, PsiFile sourceFile) {
         return newVisitor(internalClassName + ".class", Collections.singletonList(sourceFile));
     }
@@ -59,7 +74,28 @@ public final class ClassFileFactory extends GenerationStateAware {
         state.getProgress().reportOutput(toIoFilesIgnoringNonPhysical(sourceFiles), new File(outputFilePath));
         ClassBuilder answer = builderFactory.newClassBuilder();
         generators.put(outputFilePath, answer);
-        return answer;
+        return sink != null ? new SinkClassBuilder(outputFilePath, answer) : answer;
+    }
+
+    private void writeToSink(@NotNull String outputFilePath) {
+        assert sink != null;
+        ClassBuilder builder = generators.get(outputFilePath);
+        if (builder != null) {
+            sink.write(outputFilePath, builderFactory.asBytes(builder));
+            generators.put(outputFilePath, null);
+        }
+    }
+
+    /**
+     * Completes generation and writes all the classes not written yet to the sink
+     */
+    public void flush() {
+        done();
+        if (sink != null) {
+            for (String file : files()) {
+                writeToSink(file);
+            }
+        }
     }
 
     private void done() {
@@ -73,12 +109,21 @@ public final class ClassFileFactory extends GenerationStateAware {
 
     public String asText(String file) {
         done();
-        return builderFactory.asText(generators.get(file));
+        return builderFactory.asText(getGenerator(file));
     }
 
     public byte[] asBytes(String file) {
         done();
-        return builderFactory.asBytes(generators.get(file));
+        return builderFactory.asBytes(getGenerator(file));
+    }
+
+    @NotNull
+    private ClassBuilder getGenerator(String file) {
+        ClassBuilder builder = generators.get(file);
+        if (builder == null) {
+            throw new IllegalStateException(generators.containsKey(file) ? "Already written to the sink: " + file : "No such file: " + file);
+        }
+        return builder;
     }
 
     public List<String> files() {
@@ -152,4 +197,71 @@ public final class ClassFileFactory extends GenerationStateAware {
         return result;
     }
 
+    // Delegates everything to the original builder and writes the class to the sink once it's done
+    private class SinkClassBuilder extends ClassBuilder {
+        private final String outputFilePath;
+        private final ClassBuilder delegate;
+
+        private SinkClassBuilder(@NotNull String outputFilePath, @NotNull ClassBuilder delegate) {
+            this.outputFilePath = outputFilePath;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FieldVisitor newField(
+                @Nullable PsiElement origin, int access, String name, String desc, @Nullable String signature, @Nullable Object value
+        ) {
+            return delegate.newField(origin, access, name, desc, signature, value);
+        }
+
+        @Override
+        public MethodVisitor newMethod(
+                @Nullable PsiElement origin, int access, String name, String desc, @Nullable String signature, @Nullable String[] exceptions
+        ) {
+            return delegate.newMethod(origin, access, name, desc, signature, exceptions);
+        }
+
+        @Override
+        public AnnotationVisitor newAnnotation(String desc, boolean visible) {
+            return delegate.newAnnotation(desc, visible);
+        }
+
+        @Override
+        public void done() {
+            delegate.done();
+            writeToSink(outputFilePath);
+        }
+
+        @Override
+        public ClassVisitor getVisitor() {
+            return delegate.getVisitor();
+        }
+
+        @Override
+        public void defineClass(
+                PsiElement origin, int version, int access, String name, @Nullable String signature, String superName, String[] interfaces
+        ) {
+            delegate.defineClass(origin, version, access, name, signature, superName, interfaces);
+        }
+
+        @Override
+        public void visitSource(String name, @Nullable String debug) {
+            delegate.visitSource(name, debug);
+        }
+
+        @Override
+        public void visitOuterClass(String owner, @Nullable String name, @Nullable String desc) {
+            delegate.visitOuterClass(owner, name, desc);
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            delegate.visitInnerClass(name, outerName, innerName, access);
+        }
+
+        @Override
+        public String getThisName() {
+            return delegate.getThisName();
+        }
+    }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.codegen;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.asm4.ClassReader;
+import org.jetbrains.asm4.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Answers the questions about class hierarchy which ASM asks when computing stack map frames, without loading classes
+ * into the compiler: classes generated in the current compilation are registered as they are defined, other class files
+ * are looked up in the compilation classpath (and then among the resources of the compiler's own class loader)
+ * and only their headers are read.
+ */
+public class ClassHierarchy {
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final ClassInfo UNKNOWN = new ClassInfo(0, null, new String[0]);
+
+    private final List<VirtualFile> classpath;
+    private final Map<String, ClassInfo> classes = new HashMap<String, ClassInfo>();
+    private final Map<String, String> commonSuperClasses = new HashMap<String, String>();
+    // Whether the current computation of a common super class has met a class which is not known (yet)
+    private boolean unknownClassVisited;
+
+    public ClassHierarchy(@NotNull List<VirtualFile> classpath) {
+        this.classpath = classpath;
+    }
+
+    public void defineClass(int access, @NotNull String name, @Nullable String superName, @Nullable String[] interfaces) {
+        classes.put(name, new ClassInfo(access, superName, interfaces != null ? interfaces : new String[0]));
+    }
+
+    @NotNull
+    public String getCommonSuperClass(@NotNull String type1, @NotNull String type2) {
+        if (type1.equals(type2)) return type1;
+
+        String key = type1 + ";" + type2;
+        String cached = commonSuperClasses.get(key);
+        if (cached != null) return cached;
+
+        ClassInfo info1 = getClassInfo(type1);
+        ClassInfo info2 = getClassInfo(type2);
+        // Don't remember the answer for unknown classes, they may be generated later in this compilation
+        if (info1 == UNKNOWN || info2 == UNKNOWN) return OBJECT;
+
+        unknownClassVisited = false;
+        String result = computeCommonSuperClass(type1, info1, type2, info2);
+        // The same holds for an answer which depends on unknown supertypes of the known classes
+        if (!unknownClassVisited) {
+            commonSuperClasses.put(key, result);
+        }
+        return result;
+    }
+
+    @NotNull
+    private String computeCommonSuperClass(@NotNull String type1, @NotNull ClassInfo info1, @NotNull String type2, @NotNull ClassInfo info2) {
+        if (isSubclassOf(type2, type1)) return type1;
+        if (isSubclassOf(type1, type2)) return type2;
+        if (info1.isInterface() || info2.isInterface()) return OBJECT;
+
+        for (String current = info1.superName; current != null; current = getVisitedClassInfo(current).superName) {
+            if (isSubclassOf(type2, current)) return current;
+        }
+        return OBJECT;
+    }
+
+    private boolean isSubclassOf(@NotNull String type, @NotNull String superType) {
+        Set<String> visited = new HashSet<String>();
+        Deque<String> queue = new ArrayDeque<String>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            if (current.equals(superType)) return true;
+            if (!visited.add(current)) continue;
+
+            ClassInfo info = getVisitedClassInfo(current);
+            if (info.superName != null) {
+                queue.add(info.superName);
+            }
+            Collections.addAll(queue, info.interfaces);
+        }
+        return false;
+    }
+
+    @NotNull
+    private ClassInfo getVisitedClassInfo(@NotNull String internalName) {
+        ClassInfo info = getClassInfo(internalName);
+        if (info == UNKNOWN) {
+            unknownClassVisited = true;
+        }
+        return info;
+    }
+
+    @NotNull
+    private ClassInfo getClassInfo(@NotNull String internalName) {
+        ClassInfo info = classes.get(internalName);
+        if (info == null) {
+            byte[] bytes = findClassFile(internalName);
+            info = bytes != null ? readClassInfo(bytes) : UNKNOWN;
+            classes.put(internalName, info);
+        }
+        return info;
+    }
+
+    @Nullable
+    private byte[] findClassFile(@NotNull String internalName) {
+        String path = internalName + ".class";
+        try {
+            for (VirtualFile root : classpath) {
+                VirtualFile file = root.findFileByRelativePath(path);
+                if (file != null) {
+                    return file.contentsToByteArray();
+                }
+            }
+
+            InputStream stream = ClassHierarchy.class.getClassLoader().getResourceAsStream(path);
+            if (stream != null) {
+                try {
+                    return FileUtil.loadBytes(stream);
+                }
+                finally {
+                    stream.close();
+                }
+            }
+        }
+        catch (IOException e) {
+            // The class will be treated as unknown
+        }
+        return null;
+    }
+
+    @NotNull
+    private static ClassInfo readClassInfo(@NotNull byte[] bytes) {
+        try {
+            ClassReader reader = new ClassReader(bytes);
+            return new ClassInfo(reader.getAccess(), reader.getSuperName(), reader.getInterfaces());
+        }
+        catch (RuntimeException e) {
+            // Malformed class file
+            return UNKNOWN;
+        }
+    }
+
+    private static class ClassInfo {
+        private final int access;
+        private final String superName;
+        private final String[] interfaces;
+
+        private ClassInfo(int access, @Nullable String superName, @NotNull String[] interfaces) {
+            this.access = access;
+            this.superName = superName;
+            this.interfaces = interfaces;
+        }
+
+        public boolean isInterface() {
+            return (access & Opcodes.ACC_INTERFACE) != 0;
+        }
+    }
+}
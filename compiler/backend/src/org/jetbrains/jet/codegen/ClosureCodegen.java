@@ -96,10 +96,14 @@ public class ClosureCodegen extends GenerationStateAware {
 
         FunctionDescriptor interfaceFunction;
         String[] superInterfaces;
+        String primitiveFunctionInterface = null;
 
         if (samInterface == null) {
             interfaceFunction = getInvokeFunction(funDescriptor);
-            superInterfaces = ArrayUtil.EMPTY_STRING_ARRAY;
+            primitiveFunctionInterface = getPrimitiveFunctionInterface(interfaceFunction);
+            superInterfaces = primitiveFunctionInterface != null
+                              ? new String[] {primitiveFunctionInterface}
+                              : ArrayUtil.EMPTY_STRING_ARRAY;
         }
         else {
             interfaceFunction = SingleAbstractMethodUtils.getAbstractMethodOfSamInterface(samInterface);
@@ -110,7 +114,7 @@ public class ClosureCodegen extends GenerationStateAware {
                        V1_6,
                        ACC_FINAL | ACC_SUPER,
                        name.getInternalName(),
-                       getGenericSignature(),
+                       getGenericSignature(primitiveFunctionInterface),
                        superClass.getInternalName(),
                        superInterfaces
         );
@@ -289,8 +293,21 @@ public class ClosureCodegen extends GenerationStateAware {
         return argTypes;
     }
 
+    /**
+     * The method generated for the body of a closure of one parameter takes and returns unboxed values
+     * when their types are primitive, and it is the implementation of the interface for such a signature if there is one
+     */
+    @Nullable
+    private String getPrimitiveFunctionInterface(@NotNull FunctionDescriptor interfaceFunction) {
+        if (funDescriptor.getReceiverParameter() != null || funDescriptor.getValueParameters().size() != 1) return null;
+        if (getVisibilityAccessFlag(funDescriptor) != ACC_PUBLIC) return null;
+
+        Method method = typeMapper.mapSignature(interfaceFunction.getName(), funDescriptor).getAsmMethod();
+        return FunctionTypesUtil.getPrimitiveFunctionInterface(method.getArgumentTypes()[0], method.getReturnType());
+    }
+
     @NotNull
-    private String getGenericSignature() {
+    private String getGenericSignature(@Nullable String primitiveFunctionInterface) {
         ClassDescriptor classDescriptor = anonymousClassForFunction(bindingContext, funDescriptor);
         Collection<JetType> supertypes = classDescriptor.getTypeConstructor().getSupertypes();
         assert supertypes.size() == 1 : "Closure must have exactly one supertype: " + funDescriptor;
@@ -302,6 +319,11 @@ public class ClosureCodegen extends GenerationStateAware {
         sw.writeSuperclass();
         typeMapper.mapType(supertype, sw, JetTypeMapperMode.TYPE_PARAMETER);
         sw.writeSuperclassEnd();
+        if (primitiveFunctionInterface != null) {
+            sw.writeInterface();
+            sw.writeAsmType(Type.getObjectType(primitiveFunctionInterface), false);
+            sw.writeInterfaceEnd();
+        }
         sw.writeSupersEnd();
 
         String signature = sw.makeJavaGenericSignature();
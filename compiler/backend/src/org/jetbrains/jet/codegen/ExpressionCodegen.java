@@ -47,6 +47,9 @@ import org.jetbrains.jet.lang.psi.*;
 import org.jetbrains.jet.lang.resolve.BindingContext;
 import org.jetbrains.jet.lang.resolve.DescriptorUtils;
 import org.jetbrains.jet.lang.resolve.calls.autocasts.AutoCastReceiver;
+import org.jetbrains.jet.lang.resolve.calls.autocasts.DataFlowInfo;
+import org.jetbrains.jet.lang.resolve.calls.autocasts.DataFlowValue;
+import org.jetbrains.jet.lang.resolve.calls.autocasts.DataFlowValueFactory;
 import org.jetbrains.jet.lang.resolve.calls.model.*;
 import org.jetbrains.jet.lang.resolve.calls.util.CallMaker;
 import org.jetbrains.jet.lang.resolve.calls.util.ExpressionAsFunctionDescriptor;
@@ -58,6 +61,7 @@ import org.jetbrains.jet.lang.resolve.scopes.receivers.*;
 import org.jetbrains.jet.lang.types.JetType;
 import org.jetbrains.jet.lang.types.checker.JetTypeChecker;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
+import org.jetbrains.jet.lang.types.lang.PrimitiveType;
 import org.jetbrains.jet.lexer.JetTokens;
 import org.jetbrains.jet.renderer.DescriptorRenderer;
 
@@ -68,6 +72,7 @@ import static org.jetbrains.jet.codegen.AsmUtil.*;
 import static org.jetbrains.jet.codegen.CodegenUtil.*;
 import static org.jetbrains.jet.codegen.FunctionTypesUtil.functionTypeToImpl;
 import static org.jetbrains.jet.codegen.FunctionTypesUtil.getFunctionImplClassName;
+import static org.jetbrains.jet.codegen.FunctionTypesUtil.getPrimitiveFunctionInterface;
 import static org.jetbrains.jet.codegen.binding.CodegenBinding.*;
 import static org.jetbrains.jet.lang.resolve.BindingContext.*;
 import static org.jetbrains.jet.lang.resolve.BindingContextUtils.descriptorToDeclaration;
@@ -81,7 +86,6 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
     private static final String CLASS_NO_PATTERN_MATCHED_EXCEPTION = "jet/NoPatternMatchedException";
     private static final String CLASS_TYPE_CAST_EXCEPTION = "jet/TypeCastException";
-    public static final Set<DeclarationDescriptor> INTEGRAL_RANGES = KotlinBuiltIns.getInstance().getIntegralRanges();
 
     private int myLastLineNumber = -1;
 
@@ -668,13 +672,9 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
         // This method consumes range/progression from stack
         // The result is stored to local variable
-        protected void generateRangeOrProgressionProperty(Type loopRangeType, String getterName, Type elementType, int varToStore) {
-            JvmPrimitiveType primitiveType = JvmPrimitiveType.getByAsmType(elementType);
-            assert primitiveType != null : elementType;
-            Type asmWrapperType = primitiveType.getWrapper().getAsmType();
-
-            v.invokevirtual(loopRangeType.getInternalName(), getterName, "()" + asmWrapperType.getDescriptor());
-            StackValue.coerce(asmWrapperType, elementType, v);
+        // The getters of ranges and progressions return boxed values, so the fields are read directly
+        protected void generateRangeOrProgressionProperty(Type loopRangeType, String fieldName, Type elementType, int varToStore) {
+            v.getfield(loopRangeType.getInternalName(), fieldName, elementType.getDescriptor());
             v.store(varToStore, elementType);
         }
     }
@@ -978,8 +978,8 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             gen(forExpression.getLoopRange(), asmLoopRangeType);
             v.dup();
 
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getStart", asmElementType, loopParameterVar);
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getEnd", asmElementType, endVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "start", asmElementType, loopParameterVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "end", asmElementType, endVar);
         }
     }
 
@@ -1016,9 +1016,9 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
             v.dup();
             v.dup();
 
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getStart", asmElementType, loopParameterVar);
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getEnd", asmElementType, endVar);
-            generateRangeOrProgressionProperty(asmLoopRangeType, "getIncrement", incrementType, incrementVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "start", asmElementType, loopParameterVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "end", asmElementType, endVar);
+            generateRangeOrProgressionProperty(asmLoopRangeType, "increment", incrementType, incrementVar);
 
             storeFinalVar();
         }
@@ -1982,6 +1982,9 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         Callable callable = resolveToCallable(fd, superCall);
         if (callable instanceof CallableMethod) {
             CallableMethod callableMethod = (CallableMethod) callable;
+            if (isPrimitiveFunctionInvoke(fd, callableMethod, resolvedCall)) {
+                return invokePrimitiveFunction(fd, callableMethod, resolvedCall, receiver);
+            }
             invokeMethodWithArguments(callableMethod, resolvedCall, call, receiver);
 
             Type callReturnType = callableMethod.getSignature().getAsmMethod().getReturnType();
@@ -2006,6 +2009,85 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
     }
 
+    private boolean isPrimitiveFunctionInvoke(
+            @NotNull FunctionDescriptor fd,
+            @NotNull CallableMethod callableMethod,
+            @NotNull ResolvedCall<? extends CallableDescriptor> resolvedCall
+    ) {
+        if (callableMethod.getGenerateCalleeType() != null) return false;
+        if (fd.getContainingDeclaration() != KotlinBuiltIns.getInstance().getFunction(1)) return false;
+        if (!(getFunctionCall(resolvedCall).getValueArgumentsByIndex().get(0) instanceof ExpressionValueArgument)) return false;
+
+        JetType returnType = fd.getReturnType();
+        assert returnType != null : "Return type can't be null: " + fd;
+        Type parameterType = typeMapper.mapType(fd.getValueParameters().get(0).getType());
+        return getPrimitiveFunctionInterface(parameterType, typeMapper.mapReturnType(returnType)) != null;
+    }
+
+    /**
+     * Calls a function object of one parameter through the unboxed invoke() of the interface implemented by closures
+     * with primitive parameter and return types, and falls back to invoke(Object) for other implementations of Function1
+     */
+    @NotNull
+    private StackValue invokePrimitiveFunction(
+            @NotNull FunctionDescriptor fd,
+            @NotNull CallableMethod callableMethod,
+            @NotNull ResolvedCall<? extends CallableDescriptor> resolvedCall,
+            @NotNull StackValue receiver
+    ) {
+        resolvedCall = getFunctionCall(resolvedCall);
+
+        JetType returnType = fd.getReturnType();
+        assert returnType != null : "Return type can't be null: " + fd;
+        Type parameterType = typeMapper.mapType(fd.getValueParameters().get(0).getType());
+        Type resultType = typeMapper.mapReturnType(returnType);
+        String primitiveFunctionInterface = getPrimitiveFunctionInterface(parameterType, resultType);
+        assert primitiveFunctionInterface != null : "No unboxed invoke() for " + fd;
+
+        receiver = StackValue.receiver(resolvedCall, receiver, this, callableMethod);
+        receiver.put(receiver.type, v);
+
+        ValueArgument valueArgument = ((ExpressionValueArgument) resolvedCall.getValueArgumentsByIndex().get(0)).getValueArgument();
+        assert valueArgument != null;
+        JetExpression argumentExpression = valueArgument.getArgumentExpression();
+        assert argumentExpression != null : valueArgument.asElement().getText();
+        gen(argumentExpression, parameterType);
+
+        int argumentIndex = myFrameMap.enterTemp(parameterType);
+        v.store(argumentIndex, parameterType);
+
+        Label generic = new Label();
+        Label end = new Label();
+        Type interfaceType = Type.getObjectType(primitiveFunctionInterface);
+
+        v.dup();
+        v.instanceOf(interfaceType);
+        v.ifeq(generic);
+        v.checkcast(interfaceType);
+        v.load(argumentIndex, parameterType);
+        v.invokeinterface(primitiveFunctionInterface, "invoke", Type.getMethodDescriptor(resultType, parameterType));
+        v.goTo(end);
+
+        v.mark(generic);
+        v.load(argumentIndex, parameterType);
+        StackValue.coerce(parameterType, OBJECT_TYPE, v);
+        callableMethod.invokeWithNotNullAssertion(v, state, resolvedCall);
+        StackValue.coerce(callableMethod.getSignature().getAsmMethod().getReturnType(), resultType, v);
+
+        v.mark(end);
+        myFrameMap.leaveTemp(parameterType);
+
+        return StackValue.onStack(resultType);
+    }
+
+    @NotNull
+    private static ResolvedCall<? extends CallableDescriptor> getFunctionCall(@NotNull ResolvedCall<? extends CallableDescriptor> resolvedCall) {
+        if (resolvedCall instanceof VariableAsFunctionResolvedCall) {
+            return ((VariableAsFunctionResolvedCall) resolvedCall).getFunctionCall();
+        }
+        return resolvedCall;
+    }
+
     @Nullable
     private static JetSuperExpression getSuperCallExpression(@NotNull Call call) {
         ReceiverValue explicitReceiver = call.getExplicitReceiver();
@@ -2346,28 +2428,7 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
                 gen(arguments.get(0).getArgumentExpression(), type);
             }
             else {
-                String owner = "jet/runtime/Intrinsics$SpreadBuilder";
-                v.anew(Type.getObjectType(owner));
-                v.dup();
-                v.invokespecial(owner, "<init>", "()V");
-                for (int i = 0; i != size; ++i) {
-                    v.dup();
-                    ValueArgument argument = arguments.get(i);
-                    if (argument.getSpreadElement() != null) {
-                        gen(argument.getArgumentExpression(), OBJECT_TYPE);
-                        v.invokevirtual(owner, "addSpread", "(Ljava/lang/Object;)V");
-                    }
-                    else {
-                        gen(argument.getArgumentExpression(), elementType);
-                        v.invokevirtual(owner, "add", "(Ljava/lang/Object;)Z");
-                        v.pop();
-                    }
-                }
-                v.dup();
-                v.invokevirtual(owner, "size", "()I");
-                v.newarray(elementType);
-                v.invokevirtual(owner, "toArray", "([Ljava/lang/Object;)[Ljava/lang/Object;");
-                v.checkcast(type);
+                genVarargsWithSpread(arguments, type, elementType);
             }
         }
         else {
@@ -2382,6 +2443,73 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         }
     }
 
+    // The arguments are evaluated into local variables first, so that the size of the resulting array is known
+    // and the spread arrays can be copied into it with System.arraycopy()
+    private void genVarargsWithSpread(@NotNull List<ValueArgument> arguments, @NotNull Type type, @NotNull Type elementType) {
+        int size = arguments.size();
+        int[] argumentVars = new int[size];
+        int spreadCount = 0;
+        for (int i = 0; i != size; ++i) {
+            ValueArgument argument = arguments.get(i);
+            Type argumentType = argument.getSpreadElement() != null ? type : elementType;
+            gen(argument.getArgumentExpression(), argumentType);
+            argumentVars[i] = myFrameMap.enterTemp(argumentType);
+            v.store(argumentVars[i], argumentType);
+            if (argument.getSpreadElement() != null) {
+                spreadCount++;
+            }
+        }
+
+        v.iconst(size - spreadCount);
+        for (int i = 0; i != size; ++i) {
+            if (arguments.get(i).getSpreadElement() != null) {
+                v.load(argumentVars[i], type);
+                v.arraylength();
+                v.add(Type.INT_TYPE);
+            }
+        }
+        v.newarray(elementType);
+        int resultVar = myFrameMap.enterTemp(type);
+        v.store(resultVar, type);
+
+        int indexVar = myFrameMap.enterTemp(Type.INT_TYPE);
+        v.iconst(0);
+        v.store(indexVar, Type.INT_TYPE);
+
+        for (int i = 0; i != size; ++i) {
+            if (arguments.get(i).getSpreadElement() != null) {
+                v.load(argumentVars[i], type);
+                v.iconst(0);
+                v.load(resultVar, type);
+                v.load(indexVar, Type.INT_TYPE);
+                v.load(argumentVars[i], type);
+                v.arraylength();
+                v.invokestatic("java/lang/System", "arraycopy", "(Ljava/lang/Object;ILjava/lang/Object;II)V");
+
+                v.load(indexVar, Type.INT_TYPE);
+                v.load(argumentVars[i], type);
+                v.arraylength();
+                v.add(Type.INT_TYPE);
+                v.store(indexVar, Type.INT_TYPE);
+            }
+            else {
+                v.load(resultVar, type);
+                v.load(indexVar, Type.INT_TYPE);
+                v.load(argumentVars[i], elementType);
+                StackValue.arrayElement(elementType, false).store(elementType, v);
+                v.iinc(indexVar, 1);
+            }
+        }
+
+        v.load(resultVar, type);
+
+        myFrameMap.leaveTemp(Type.INT_TYPE);
+        myFrameMap.leaveTemp(type);
+        for (int i = size - 1; i >= 0; --i) {
+            myFrameMap.leaveTemp(arguments.get(i).getSpreadElement() != null ? type : elementType);
+        }
+    }
+
     public int pushMethodArguments(JetCallElement expression, List<Type> valueParameterTypes) {
         ResolvedCall<? extends CallableDescriptor> resolvedCall =
                 bindingContext.get(BindingContext.RESOLVED_CALL, expression.getCalleeExpression());
@@ -2657,10 +2785,10 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
 
     private StackValue generateIn(JetBinaryExpression expression) {
         boolean inverted = expression.getOperationReference().getReferencedNameElementType() == JetTokens.NOT_IN;
-        if (isIntRangeExpr(expression.getRight())) {
-            StackValue leftValue = StackValue.expression(Type.INT_TYPE, expression.getLeft(), this);
-            JetBinaryExpression rangeExpression = (JetBinaryExpression) expression.getRight();
-            getInIntRange(leftValue, rangeExpression, inverted);
+        JetExpression rangeExpression = expression.getRight();
+        if (rangeExpression != null && isPrimitiveRangeContains(expression.getOperationReference())) {
+            StackValue leftValue = StackValue.expression(expressionType(expression.getLeft()), expression.getLeft(), this);
+            generateInPrimitiveRange(leftValue, JetPsiUtil.deparenthesizeWithNoTypeResolution(rangeExpression), inverted);
         }
         else {
             invokeFunctionByReference(expression.getOperationReference());
@@ -2671,42 +2799,121 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
         return StackValue.onStack(Type.BOOLEAN_TYPE);
     }
 
-    private void getInIntRange(StackValue leftValue, JetBinaryExpression rangeExpression, boolean inverted) {
-        v.iconst(1);
-        // 1
-        leftValue.put(Type.INT_TYPE, v);
-        // 1 l
-        v.dup2();
-        // 1 l 1 l
+    // True if the value can't be null according to its type or the data flow information, e.g. if it has been compared with null
+    private boolean isKnownToBeNotNull(@Nullable JetExpression expression) {
+        if (expression == null) return false;
+        JetType type = bindingContext.get(EXPRESSION_TYPE, expression);
+        if (type == null) return false;
+        if (!isNullableType(type)) return true;
 
-        //noinspection ConstantConditions
-        gen(rangeExpression.getLeft(), Type.INT_TYPE);
-        // 1 l 1 l r
-        Label lok = new Label();
-        v.ificmpge(lok);
-        // 1 l 1
-        v.pop();
-        v.iconst(0);
-        v.mark(lok);
-        // 1 l c
-        v.dupX2();
-        // c 1 l c
-        v.pop();
-        // c 1 l
+        DataFlowInfo dataFlowInfo = bindingContext.get(EXPRESSION_DATA_FLOW_INFO, expression);
+        if (dataFlowInfo == null) return false;
+        DataFlowValue value = DataFlowValueFactory.INSTANCE.createDataFlowValue(expression, type, bindingContext);
+        return !dataFlowInfo.getNullability(value).canBeNull();
+    }
 
-        gen(rangeExpression.getRight(), Type.INT_TYPE);
-        // c 1 l r
-        Label rok = new Label();
-        v.ificmple(rok);
-        // c 1
-        v.pop();
-        v.iconst(0);
-        v.mark(rok);
-        // c c
+    private boolean isPrimitiveRangeContains(@NotNull JetSimpleNameExpression operationReference) {
+        ResolvedCall<? extends CallableDescriptor> resolvedCall = bindingContext.get(RESOLVED_CALL, operationReference);
+        return resolvedCall != null && RangeCodegenUtil.isOptimizableRangeContains(resolvedCall.getResultingDescriptor());
+    }
 
-        v.and(Type.INT_TYPE);
-        if (inverted) {
-            genInvertBoolean(v);
+    /*
+     * Generates "element in range" as two comparisons with the bounds of the range, which are evaluated directly for "a..b" literals
+     * and read from the fields of the range instance otherwise. Like contains(), a floating point NaN is not in any range
+     */
+    private void generateInPrimitiveRange(@NotNull StackValue element, @NotNull JetExpression rangeExpression, boolean inverted) {
+        JetType rangeType = bindingContext.get(EXPRESSION_TYPE, rangeExpression);
+        assert rangeType != null : "No type for range " + DiagnosticUtils.atLocation(rangeExpression);
+        PrimitiveType primitiveElementType = RangeCodegenUtil.getPrimitiveRangeElementType(rangeType);
+        assert primitiveElementType != null : "Not a primitive range: " + rangeType;
+        Type elementType = asmType(KotlinBuiltIns.getInstance().getPrimitiveJetType(primitiveElementType));
+
+        int startVar = myFrameMap.enterTemp(elementType);
+        int endVar = myFrameMap.enterTemp(elementType);
+        int elementVar = myFrameMap.enterTemp(elementType);
+
+        RangeCodegenUtil.BinaryCall rangeLiteral = getOptimizableRangeLiteral(rangeExpression);
+        if (rangeLiteral != null) {
+            element.put(elementType, v);
+            v.store(elementVar, elementType);
+            gen(rangeLiteral.left, elementType);
+            v.store(startVar, elementType);
+            gen(rangeLiteral.right, elementType);
+            v.store(endVar, elementType);
+        }
+        else {
+            // The range is evaluated first, as the receiver of contains()
+            Type asmRangeType = asmType(rangeType);
+            gen(rangeExpression, asmRangeType);
+            v.dup();
+            v.getfield(asmRangeType.getInternalName(), "start", elementType.getDescriptor());
+            v.store(startVar, elementType);
+            v.getfield(asmRangeType.getInternalName(), "end", elementType.getDescriptor());
+            v.store(endVar, elementType);
+            element.put(elementType, v);
+            v.store(elementVar, elementType);
+        }
+
+        Label outside = new Label();
+        Label end = new Label();
+
+        v.load(elementVar, elementType);
+        v.load(startVar, elementType);
+        jumpIfOutOfBound(elementType, false, outside);
+        v.load(elementVar, elementType);
+        v.load(endVar, elementType);
+        jumpIfOutOfBound(elementType, true, outside);
+
+        v.iconst(inverted ? 0 : 1);
+        v.goTo(end);
+        v.mark(outside);
+        v.iconst(inverted ? 1 : 0);
+        v.mark(end);
+
+        myFrameMap.leaveTemp(elementType);
+        myFrameMap.leaveTemp(elementType);
+        myFrameMap.leaveTemp(elementType);
+    }
+
+    @Nullable
+    private RangeCodegenUtil.BinaryCall getOptimizableRangeLiteral(@NotNull JetExpression rangeExpression) {
+        RangeCodegenUtil.BinaryCall binaryCall = RangeCodegenUtil.getRangeAsBinaryCall(rangeExpression);
+        if (binaryCall == null || binaryCall.left == null || binaryCall.right == null) return null;
+
+        ResolvedCall<? extends CallableDescriptor> resolvedCall = bindingContext.get(RESOLVED_CALL, binaryCall.op);
+        if (resolvedCall == null || !RangeCodegenUtil.isOptimizableRangeTo(resolvedCall.getResultingDescriptor())) return null;
+        return binaryCall;
+    }
+
+    // Compares the two values on the stack and jumps if the first one is less (or greater) than the second one or any of them is NaN
+    private void jumpIfOutOfBound(@NotNull Type type, boolean greater, @NotNull Label label) {
+        switch (type.getSort()) {
+            case Type.LONG:
+                v.lcmp();
+                break;
+            case Type.FLOAT:
+            case Type.DOUBLE:
+                if (greater) {
+                    v.cmpg(type);
+                }
+                else {
+                    v.cmpl(type);
+                }
+                break;
+            default:
+                if (greater) {
+                    v.ificmpgt(label);
+                }
+                else {
+                    v.ificmplt(label);
+                }
+                return;
+        }
+        if (greater) {
+            v.ifgt(label);
+        }
+        else {
+            v.iflt(label);
         }
     }
 
@@ -3026,8 +3233,9 @@ public class ExpressionCodegen extends JetVisitor<StackValue, StackValue> implem
     @Override
     public StackValue visitPostfixExpression(JetPostfixExpression expression, StackValue receiver) {
         if (expression.getOperationReference().getReferencedNameElementType() == JetTokens.EXCLEXCL) {
-            StackValue base = genQualified(receiver, expression.getBaseExpression());
-            if (isPrimitive(base.type)) {
+            JetExpression baseExpression = expression.getBaseExpression();
+            StackValue base = genQualified(receiver, baseExpression);
+            if (isPrimitive(base.type) || isKnownToBeNotNull(baseExpression)) {
                 return base;
             }
             base.put(base.type, v);
@@ -3713,8 +3921,8 @@ The "returned" value of try expression with no finally is either the last expres
             }
             JetSimpleNameExpression operationReference = conditionInRange.getOperationReference();
             boolean inverted = operationReference.getReferencedNameElementType() == JetTokens.NOT_IN;
-            if (isIntRangeExpr(rangeExpression)) {
-                getInIntRange(new StackValue.Local(subjectLocal, subjectType), (JetBinaryExpression) rangeExpression, inverted);
+            if (rangeExpression != null && isPrimitiveRangeContains(operationReference)) {
+                generateInPrimitiveRange(new StackValue.Local(subjectLocal, subjectType), rangeExpression, inverted);
             }
             else {
                 //FunctionDescriptor op =
@@ -3750,19 +3958,6 @@ The "returned" value of try expression with no finally is either the last expres
         invokeFunction(call, StackValue.none(), resolvedCall);
     }
 
-    private boolean isIntRangeExpr(JetExpression rangeExpression) {
-        if (rangeExpression instanceof JetBinaryExpression) {
-            JetBinaryExpression binaryExpression = (JetBinaryExpression) rangeExpression;
-            if (binaryExpression.getOperationReference().getReferencedNameElementType() == JetTokens.RANGE) {
-                JetType jetType = bindingContext.get(BindingContext.EXPRESSION_TYPE, rangeExpression);
-                assert jetType != null;
-                DeclarationDescriptor descriptor = jetType.getConstructor().getDeclarationDescriptor();
-                return INTEGRAL_RANGES.contains(descriptor);
-            }
-        }
-        return false;
-    }
-
     private void throwNewException(@NotNull String className) {
         throwNewException(className, null);
     }
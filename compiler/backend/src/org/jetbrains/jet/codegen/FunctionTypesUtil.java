@@ -19,6 +19,7 @@ package org.jetbrains.jet.codegen;
 import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.asm4.Type;
 import org.jetbrains.jet.lang.descriptors.*;
 import org.jetbrains.jet.lang.descriptors.impl.MutableClassDescriptor;
 import org.jetbrains.jet.lang.resolve.java.JvmClassName;
@@ -41,6 +42,12 @@ public class FunctionTypesUtil {
 
     private static final ImmutableMap<ClassDescriptor, ClassDescriptor> FUNCTION_TO_IMPL;
 
+    // Must be kept in sync with GeneratePrimitiveFunctions
+    private static final ImmutableMap<Type, String> PRIMITIVE_FUNCTION_PARAMETER_TYPES = ImmutableMap.of(
+            Type.INT_TYPE, "Int", Type.LONG_TYPE, "Long", Type.DOUBLE_TYPE, "Double");
+    private static final ImmutableMap<Type, String> PRIMITIVE_FUNCTION_RETURN_TYPES = ImmutableMap.of(
+            Type.BOOLEAN_TYPE, "Boolean", Type.INT_TYPE, "Int", Type.LONG_TYPE, "Long", Type.DOUBLE_TYPE, "Double");
+
     static {
         int n = KotlinBuiltIns.FUNCTION_TRAIT_COUNT;
         FUNCTIONS = new ArrayList<ClassDescriptor>(n);
@@ -177,4 +184,16 @@ public class FunctionTypesUtil {
             return JvmClassName.byInternalName("jet/FunctionImpl" + paramCount);
         }
     }
+
+    /**
+     * Returns the runtime interface with invoke() taking and returning unboxed values of the given types, if there is one.
+     * Closures of one parameter implement such an interface, see runtime/src/jet/runtime/functions
+     */
+    @Nullable
+    public static String getPrimitiveFunctionInterface(@NotNull Type parameterType, @NotNull Type returnType) {
+        String parameterName = PRIMITIVE_FUNCTION_PARAMETER_TYPES.get(parameterType);
+        String returnName = PRIMITIVE_FUNCTION_RETURN_TYPES.get(returnType);
+        if (parameterName == null || returnName == null) return null;
+        return "jet/runtime/functions/" + parameterName + "To" + returnName + "Function";
+    }
 }
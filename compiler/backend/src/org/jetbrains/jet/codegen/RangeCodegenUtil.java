@@ -20,7 +20,9 @@ import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jet.lang.descriptors.CallableDescriptor;
+import org.jetbrains.jet.lang.descriptors.ClassDescriptor;
 import org.jetbrains.jet.lang.descriptors.ClassifierDescriptor;
+import org.jetbrains.jet.lang.descriptors.DeclarationDescriptor;
 import org.jetbrains.jet.lang.psi.*;
 import org.jetbrains.jet.lang.resolve.DescriptorUtils;
 import org.jetbrains.jet.lang.resolve.name.FqName;
@@ -59,10 +61,15 @@ public class RangeCodegenUtil {
 
     @Nullable
     public static BinaryCall getRangeAsBinaryCall(@NotNull JetForExpression forExpression) {
-        // We are looking for rangeTo() calls
-        // Other binary operations will succeed too, but will be filtered out later (by examining a resolvedCall)
         JetExpression rangeExpression = forExpression.getLoopRange();
         assert rangeExpression != null;
+        return getRangeAsBinaryCall(rangeExpression);
+    }
+
+    @Nullable
+    public static BinaryCall getRangeAsBinaryCall(@NotNull JetExpression rangeExpression) {
+        // We are looking for rangeTo() calls
+        // Other binary operations will succeed too, but will be filtered out later (by examining a resolvedCall)
         JetExpression loopRange = JetPsiUtil.deparenthesizeWithNoTypeResolution(rangeExpression);
         if (loopRange instanceof JetQualifiedExpression) {
             // a.rangeTo(b)
@@ -88,7 +95,7 @@ public class RangeCodegenUtil {
     }
 
     @Nullable
-    private static PrimitiveType getPrimitiveRangeElementType(JetType rangeType) {
+    public static PrimitiveType getPrimitiveRangeElementType(JetType rangeType) {
         return getPrimitiveRangeOrProgressionElementType(rangeType, RANGE_TO_ELEMENT_TYPE);
     }
 
@@ -120,6 +127,16 @@ public class RangeCodegenUtil {
         return false;
     }
 
+    public static boolean isOptimizableRangeContains(CallableDescriptor contains) {
+        if ("contains".equals(contains.getName().asString())) {
+            DeclarationDescriptor containingDeclaration = contains.getContainingDeclaration();
+            if (containingDeclaration instanceof ClassDescriptor) {
+                return isRange(((ClassDescriptor) containingDeclaration).getDefaultType());
+            }
+        }
+        return false;
+    }
+
     public static class BinaryCall {
         public final JetExpression left;
         public final JetExpression op;
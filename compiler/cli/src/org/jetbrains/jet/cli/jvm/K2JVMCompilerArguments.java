@@ -70,6 +70,9 @@ public class K2JVMCompilerArguments extends CompilerArguments {
     @Argument(value = "notNullParamAssertions", description = "generate not-null assertions on parameters of methods accessible from Java")
     public boolean notNullParamAssertions;
 
+    @Argument(value = "parseThreads", description = "number of threads used to parse source files before analysis (1 to parse sequentially)")
+    public Integer parseThreads;
+
     @Argument(value = "builtins", description = "compile builtin classes (internal)")
     public boolean builtins;
 
@@ -33,6 +33,7 @@ import org.jetbrains.jet.cli.common.modules.ModuleDescription;
 import org.jetbrains.jet.cli.common.modules.ModuleXmlParser;
 import org.jetbrains.jet.cli.jvm.JVMConfigurationKeys;
 import org.jetbrains.jet.codegen.ClassFileFactory;
+import org.jetbrains.jet.codegen.ClassFileSink;
 import org.jetbrains.jet.codegen.GeneratedClassLoader;
 import org.jetbrains.jet.codegen.state.GenerationState;
 import org.jetbrains.jet.config.CommonConfigurationKeys;
@@ -42,10 +43,7 @@ import org.jetbrains.jet.lang.resolve.name.FqName;
 import org.jetbrains.jet.utils.KotlinPaths;
 import org.jetbrains.jet.utils.PathUtil;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.OutputStream;
+import java.io.*;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -184,14 +182,7 @@ public class CompileEnvironmentUtil {
     // TODO: includeRuntime should be not a flag but a path to runtime
     public static void writeToJar(ClassFileFactory factory, OutputStream fos, @Nullable FqName mainClass, boolean includeRuntime) {
         try {
-            Manifest manifest = new Manifest();
-            Attributes mainAttributes = manifest.getMainAttributes();
-            mainAttributes.putValue("Manifest-Version", "1.0");
-            mainAttributes.putValue("Created-By", "JetBrains Kotlin");
-            if (mainClass != null) {
-                mainAttributes.putValue("Main-Class", mainClass.asString());
-            }
-            JarOutputStream stream = new JarOutputStream(fos, manifest);
+            JarOutputStream stream = new JarOutputStream(fos, createManifest(mainClass));
             for (String file : factory.files()) {
                 stream.putNextEntry(new JarEntry(file));
                 stream.write(factory.asBytes(file));
@@ -206,6 +197,124 @@ public class CompileEnvironmentUtil {
         }
     }
 
+    @NotNull
+    private static Manifest createManifest(@Nullable FqName mainClass) {
+        Manifest manifest = new Manifest();
+        Attributes mainAttributes = manifest.getMainAttributes();
+        mainAttributes.putValue("Manifest-Version", "1.0");
+        mainAttributes.putValue("Created-By", "JetBrains Kotlin");
+        if (mainClass != null) {
+            mainAttributes.putValue("Main-Class", mainClass.asString());
+        }
+        return manifest;
+    }
+
+    /**
+     * Receives class files as they are generated and keeps them in a temporary location next to the output.
+     * {@link #finish()} moves them to the output once compilation succeeds, {@link #close()} must be called in any case
+     * and deletes whatever was not finished, so a failed compilation doesn't leave partially written output behind.
+     */
+    public abstract static class OutputSink implements ClassFileSink, Closeable {
+        private boolean finished = false;
+
+        public final void finish() {
+            try {
+                doFinish();
+            }
+            catch (IOException e) {
+                throw new CompileEnvironmentException("Failed to write the output", e);
+            }
+            finished = true;
+        }
+
+        @Override
+        public final void close() throws IOException {
+            try {
+                closeTemporaryOutput();
+            }
+            finally {
+                if (!finished) {
+                    deleteTemporaryOutput();
+                }
+            }
+        }
+
+        protected abstract void doFinish() throws IOException;
+
+        protected void closeTemporaryOutput() throws IOException {
+        }
+
+        protected abstract void deleteTemporaryOutput();
+    }
+
+    /**
+     * Writes class files to a temporary jar as they are generated, the jar replaces the target file on {@link #finish()}
+     */
+    public static class JarSink extends OutputSink {
+        private final File jar;
+        private final FqName mainClass;
+        private final boolean includeRuntime;
+        private File temporaryJar;
+        private JarOutputStream stream;
+
+        public JarSink(@NotNull File jar, @Nullable FqName mainClass, boolean includeRuntime) {
+            this.jar = jar;
+            this.mainClass = mainClass;
+            this.includeRuntime = includeRuntime;
+        }
+
+        @Override
+        public void write(@NotNull String relativePath, @NotNull byte[] bytes) {
+            try {
+                JarOutputStream stream = getStream();
+                stream.putNextEntry(new JarEntry(relativePath));
+                stream.write(bytes);
+            }
+            catch (IOException e) {
+                throw new CompileEnvironmentException("Failed to generate jar file", e);
+            }
+        }
+
+        @Override
+        protected void doFinish() throws IOException {
+            JarOutputStream stream = getStream();
+            if (includeRuntime) {
+                writeRuntimeToJar(stream);
+            }
+            stream.close();
+            FileUtil.rename(temporaryJar, jar);
+        }
+
+        @Override
+        protected void closeTemporaryOutput() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+
+        @Override
+        protected void deleteTemporaryOutput() {
+            if (temporaryJar != null) {
+                FileUtil.delete(temporaryJar);
+            }
+        }
+
+        @NotNull
+        private JarOutputStream getStream() throws IOException {
+            if (stream == null) {
+                File directory = jar.getAbsoluteFile().getParentFile();
+                try {
+                    temporaryJar = FileUtil.createTempFile(directory, "." + jar.getName() + "-", ".tmp", true);
+                }
+                catch (IOException e) {
+                    throw new CompileEnvironmentException("Invalid jar path " + jar, e);
+                }
+                stream = new JarOutputStream(new FileOutputStream(temporaryJar), createManifest(mainClass));
+            }
+            return stream;
+        }
+    }
+
     private static void writeRuntimeToJar(final JarOutputStream stream) throws IOException {
         File runtimeJarPath = getRuntimeJarPath();
         if (runtimeJarPath != null) {
@@ -244,6 +353,62 @@ public class CompileEnvironmentUtil {
         }
     }
 
+    /**
+     * Writes class files to a temporary directory inside the output directory as they are generated,
+     * they are moved to their places in the output directory on {@link #finish()}
+     */
+    public static class OutputDirectorySink extends OutputSink {
+        private final File outputDir;
+        private final List<String> writtenFiles = new ArrayList<String>();
+        private File temporaryDir;
+
+        public OutputDirectorySink(@NotNull File outputDir) {
+            this.outputDir = outputDir;
+        }
+
+        @Override
+        public void write(@NotNull String relativePath, @NotNull byte[] bytes) {
+            try {
+                FileUtil.writeToFile(new File(getTemporaryDir(), relativePath), bytes);
+            }
+            catch (IOException e) {
+                throw new CompileEnvironmentException(e);
+            }
+            writtenFiles.add(relativePath);
+        }
+
+        @Override
+        protected void doFinish() throws IOException {
+            if (temporaryDir == null) {
+                return;
+            }
+            for (String file : writtenFiles) {
+                File target = new File(outputDir, file);
+                FileUtil.createParentDirs(target);
+                FileUtil.rename(new File(temporaryDir, file), target);
+            }
+            FileUtil.delete(temporaryDir);
+        }
+
+        @Override
+        protected void deleteTemporaryOutput() {
+            if (temporaryDir != null) {
+                FileUtil.delete(temporaryDir);
+            }
+        }
+
+        @NotNull
+        private File getTemporaryDir() throws IOException {
+            if (temporaryDir == null) {
+                // Inside the output directory, so that the files are moved within the same file system
+                // and nothing is written outside of the directory the user has given
+                FileUtil.createDirectory(outputDir);
+                temporaryDir = FileUtil.createTempDirectory(outputDir, ".kotlin-", ".tmp");
+            }
+            return temporaryDir;
+        }
+    }
+
     // Used for debug output only
     private static String loadModuleScriptText(String moduleScriptFile) {
         String moduleScriptText;
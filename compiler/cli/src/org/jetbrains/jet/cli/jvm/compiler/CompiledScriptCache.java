@@ -0,0 +1,300 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.cli.common.KotlinVersion;
+import org.jetbrains.jet.codegen.ClassFileFactory;
+import org.jetbrains.jet.lang.parsing.JetScriptDefinition;
+import org.jetbrains.jet.lang.resolve.AnalyzerScriptParameter;
+import org.jetbrains.jet.lang.resolve.java.JvmAbi;
+import org.jetbrains.jet.lang.resolve.name.FqName;
+import org.jetbrains.jet.lang.types.ref.JetTypeName;
+import org.jetbrains.jet.utils.ExceptionUtils;
+import org.jetbrains.jet.utils.KotlinPaths;
+import org.jetbrains.jet.utils.PathUtil;
+
+import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Keeps class files of compiled scripts in a directory, one jar per script, so that a script which has not changed
+ * is not compiled again. The jar is found by a hash of everything the result of compilation depends on: the text
+ * and the name of the script, the compiler, the classpath and the script parameters. The name of the script class
+ * is stored in the manifest of the jar.
+ * <p/>
+ * Jars and classpath directories are identified by their paths, timestamps and sizes, the contents of directories
+ * are not looked into. Jars which were not used for {@link #MAX_UNUSED_TIME} are deleted, and the least recently
+ * used ones are deleted when the jars take more than the given size.
+ */
+public class CompiledScriptCache {
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+    public static final long MAX_UNUSED_TIME = 30L * 24 * 60 * 60 * 1000;
+    // Temporary files of processes which were killed while storing a script
+    private static final long MAX_TEMPORARY_FILE_AGE = 60L * 60 * 1000;
+
+    private final File directory;
+    private final long maxSize;
+
+    public CompiledScriptCache(@NotNull File directory) {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    public CompiledScriptCache(@NotNull File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    @NotNull
+    public String computeKey(
+            @NotNull File scriptFile,
+            @NotNull Collection<File> classpath,
+            @Nullable List<AnalyzerScriptParameter> scriptParameters,
+            @Nullable List<JetScriptDefinition> scriptDefinitions
+    ) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw ExceptionUtils.rethrow(e);
+        }
+
+        update(digest, KotlinVersion.VERSION);
+        update(digest, String.valueOf(JvmAbi.VERSION));
+        // The version is not updated between development builds, the compiler jar itself is
+        updateWithFile(digest, PathUtil.getJarPathForClass(CompiledScriptCache.class));
+
+        update(digest, scriptFile.getName());
+        digest.update(FileUtil.loadFileBytes(scriptFile));
+
+        for (File file : classpath) {
+            updateWithFile(digest, file);
+        }
+        if (scriptParameters != null) {
+            updateWithParameters(digest, scriptParameters);
+        }
+        if (scriptDefinitions != null) {
+            for (JetScriptDefinition definition : scriptDefinitions) {
+                update(digest, definition.getExtension());
+                updateWithParameters(digest, definition.getScriptParameters());
+            }
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the script class compiled earlier with the given key, or null if there is no such script in the cache
+     */
+    @Nullable
+    public Class<?> load(@NotNull String key, @NotNull KotlinPaths paths, @NotNull ClassLoader parentLoader) {
+        File jar = getJar(key);
+        if (!jar.isFile()) return null;
+
+        try {
+            Map<String, byte[]> classFiles = new HashMap<String, byte[]>();
+            String className = readJar(jar, classFiles);
+            if (className == null) return null;
+
+            // The timestamp is used to find the least recently used jars on eviction
+            //noinspection ResultOfMethodCallIgnored
+            jar.setLastModified(System.currentTimeMillis());
+
+            ClassLoader runtimeLoader = new URLClassLoader(new URL[] {paths.getRuntimePath().toURI().toURL()}, parentLoader);
+            return new CachedScriptClassLoader(classFiles, runtimeLoader).loadClass(className);
+        }
+        catch (IOException e) {
+            // Broken entry, the script will be compiled again
+            return null;
+        }
+        catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    public void store(@NotNull String key, @NotNull ClassFileFactory factory, @NotNull String scriptClassInternalName) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new CompileEnvironmentException("Could not create the script cache directory: " + directory);
+        }
+
+        // Written to a temporary file first, so that a concurrently running script never sees a half-written jar
+        File jar = getJar(key);
+        File temp = new File(directory, key + "." + System.nanoTime() + ".tmp");
+        try {
+            FileOutputStream stream = new FileOutputStream(temp);
+            try {
+                CompileEnvironmentUtil.writeToJar(factory, stream, new FqName(scriptClassInternalName.replace('/', '.')), false);
+            }
+            finally {
+                stream.close();
+            }
+            if (!temp.renameTo(jar)) {
+                // Another process has already stored the same script
+                FileUtil.delete(temp);
+            }
+        }
+        catch (IOException e) {
+            FileUtil.delete(temp);
+            throw new CompileEnvironmentException("Failed to write the script cache entry: " + jar, e);
+        }
+
+        evict(jar);
+    }
+
+    /**
+     * Deletes the jars which were not used for too long and then the least recently used ones until the rest fit
+     * into the size limit. The jar which has just been stored is kept in any case.
+     */
+    private void evict(@NotNull File justStored) {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+
+        long now = System.currentTimeMillis();
+        List<File> jars = new ArrayList<File>();
+        long totalSize = 0;
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(".tmp")) {
+                if (now - file.lastModified() > MAX_TEMPORARY_FILE_AGE) {
+                    FileUtil.delete(file);
+                }
+            }
+            else if (name.endsWith(".jar") && !file.equals(justStored)) {
+                if (now - file.lastModified() > MAX_UNUSED_TIME) {
+                    FileUtil.delete(file);
+                }
+                else {
+                    jars.add(file);
+                    totalSize += file.length();
+                }
+            }
+        }
+
+        totalSize += justStored.length();
+        if (totalSize <= maxSize) return;
+
+        Collections.sort(jars, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                long diff = o1.lastModified() - o2.lastModified();
+                return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+            }
+        });
+        for (File jar : jars) {
+            if (totalSize <= maxSize) break;
+            long size = jar.length();
+            if (FileUtil.delete(jar)) {
+                totalSize -= size;
+            }
+        }
+    }
+
+    @NotNull
+    private File getJar(@NotNull String key) {
+        return new File(directory, key + ".jar");
+    }
+
+    /**
+     * Reads all the class files of the jar, so that the jar is not kept open while the script runs, and returns the name
+     * of the script class
+     */
+    @Nullable
+    private static String readJar(@NotNull File jar, @NotNull Map<String, byte[]> classFiles) throws IOException {
+        JarFile jarFile = new JarFile(jar);
+        try {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    InputStream stream = jarFile.getInputStream(entry);
+                    try {
+                        classFiles.put(entry.getName(), FileUtil.loadBytes(stream));
+                    }
+                    finally {
+                        stream.close();
+                    }
+                }
+            }
+
+            Manifest manifest = jarFile.getManifest();
+            return manifest != null ? manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS) : null;
+        }
+        finally {
+            jarFile.close();
+        }
+    }
+
+    private static void updateWithParameters(@NotNull MessageDigest digest, @NotNull List<AnalyzerScriptParameter> parameters) {
+        for (AnalyzerScriptParameter parameter : parameters) {
+            update(digest, parameter.getName().asString());
+            updateWithTypeName(digest, parameter.getType());
+        }
+    }
+
+    private static void updateWithTypeName(@NotNull MessageDigest digest, @NotNull JetTypeName typeName) {
+        update(digest, typeName.getClassName().asString());
+        update(digest, "<");
+        for (JetTypeName argument : typeName.getArguments()) {
+            updateWithTypeName(digest, argument);
+        }
+        update(digest, ">");
+    }
+
+    private static void updateWithFile(@NotNull MessageDigest digest, @NotNull File file) {
+        update(digest, file.getAbsolutePath() + ":" + file.lastModified() + ":" + file.length());
+    }
+
+    private static void update(@NotNull MessageDigest digest, @NotNull String value) {
+        digest.update(value.getBytes(CharsetToolkit.UTF8_CHARSET));
+        // Separator, so that adjacent values can't be confused
+        digest.update((byte) 0);
+    }
+
+    private static class CachedScriptClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classFiles;
+
+        private CachedScriptClassLoader(@NotNull Map<String, byte[]> classFiles, @NotNull ClassLoader parent) {
+            super(parent);
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        protected Class<?> findClass(@NotNull String name) throws ClassNotFoundException {
+            byte[] bytes = classFiles.get(name.replace('.', '/') + ".class");
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
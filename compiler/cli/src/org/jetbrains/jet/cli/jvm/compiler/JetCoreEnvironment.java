@@ -21,6 +21,7 @@ import com.intellij.core.CoreApplicationEnvironment;
 import com.intellij.core.CoreJavaFileManager;
 import com.intellij.core.JavaCoreApplicationEnvironment;
 import com.intellij.core.JavaCoreProjectEnvironment;
+import com.intellij.lang.ASTNode;
 import com.intellij.lang.java.JavaParserDefinition;
 import com.intellij.mock.MockApplication;
 import com.intellij.mock.MockProject;
@@ -53,13 +54,16 @@ import org.jetbrains.jet.lang.psi.JetFile;
 import org.jetbrains.jet.lang.resolve.java.JetFilesProvider;
 import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
 import org.jetbrains.jet.plugin.JetFileType;
+import org.jetbrains.jet.utils.ExceptionUtils;
 import org.jetbrains.jet.utils.PathUtil;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 import static org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity.ERROR;
+import static org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity.LOGGING;
 import static org.jetbrains.jet.cli.common.messages.CompilerMessageSeverity.WARNING;
 
 public class JetCoreEnvironment {
@@ -119,12 +123,12 @@ public class JetCoreEnvironment {
         for (File path : configuration.getList(JVMConfigurationKeys.ANNOTATIONS_PATH_KEY)) {
             addExternalAnnotationsRoot(path);
         }
+        JetScriptDefinitionProvider.getInstance(project).addScriptDefinitions(configuration.getList(CommonConfigurationKeys.SCRIPT_DEFINITIONS_KEY));
+
         for (String path : configuration.getList(CommonConfigurationKeys.SOURCE_ROOTS_KEY)) {
             addSources(path);
         }
 
-        JetScriptDefinitionProvider.getInstance(project).addScriptDefinitions(configuration.getList(CommonConfigurationKeys.SCRIPT_DEFINITIONS_KEY));
-
         KotlinBuiltIns.initialize(project, KotlinBuiltIns.InitializationMode.SINGLE_THREADED);
     }
 
@@ -188,6 +192,87 @@ public class JetCoreEnvironment {
         addSources(new File(path));
     }
 
+    /**
+     * Parses the source files on several threads, as configured by {@link JVMConfigurationKeys#SOURCE_PARSING_THREADS}.
+     * Files are lexed and parsed lazily on first access to their tree, which otherwise happens on a single thread during analysis.
+     * Must be called after all the files which are compiled as scripts are marked, their trees depend on it.
+     */
+    public void parseSources() {
+        Integer threads = configuration.get(JVMConfigurationKeys.SOURCE_PARSING_THREADS);
+        if (threads == null || sourceFiles.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int usedThreads = Math.max(Math.min(threads, sourceFiles.size()), 1);
+        if (usedThreads == 1) {
+            for (JetFile file : sourceFiles) {
+                parse(file);
+            }
+        }
+        else {
+            ExecutorService executor = Executors.newFixedThreadPool(usedThreads);
+            try {
+                List<Future<?>> futures = new ArrayList<Future<?>>(sourceFiles.size());
+                for (final JetFile file : sourceFiles) {
+                    futures.add(executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            parse(file);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ExceptionUtils.rethrow(e);
+            }
+            catch (ExecutionException e) {
+                throw ExceptionUtils.rethrow(e.getCause());
+            }
+            finally {
+                executor.shutdownNow();
+            }
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        report(LOGGING, "Parsed " + sourceFiles.size() + " source files in " + millis + " ms using " + usedThreads +
+                        " thread(s) (" + (sourceFiles.size() * 1000L / Math.max(millis, 1)) + " files/sec)");
+    }
+
+    private void parse(@NotNull final JetFile file) {
+        // Loading the file text and building the tree is guarded per file by the PSI, so distinct files can be parsed concurrently
+        applicationEnvironment.getApplication().runReadAction(new Runnable() {
+            @Override
+            public void run() {
+                ensureParsed(file.getNode());
+            }
+        });
+    }
+
+    private static void ensureParsed(@NotNull ASTNode root) {
+        // Function bodies are parsed lazily on first access, and the compiler is going to need all of them.
+        // The tree is walked without recursion, deeply nested expressions would overflow the stack otherwise
+        ASTNode node = root;
+        while (true) {
+            ASTNode child = node.getFirstChildNode();
+            if (child != null) {
+                node = child;
+                continue;
+            }
+            while (node != root && node.getTreeNext() == null) {
+                node = node.getTreeParent();
+            }
+            if (node == root) {
+                return;
+            }
+            node = node.getTreeNext();
+        }
+    }
+
     private void addToClasspath(File path) {
         if (path.isFile()) {
             VirtualFile jarFile = applicationEnvironment.getJarFileSystem().findFileByPath(path + "!/");
@@ -18,9 +18,11 @@ package org.jetbrains.jet.cli.jvm.compiler;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import jet.Function0;
 import jet.modules.AllModules;
@@ -54,8 +56,6 @@ import org.jetbrains.jet.utils.KotlinPaths;
 import org.jetbrains.jet.utils.PathUtil;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -72,6 +72,16 @@ public class KotlinToJVMBytecodeCompiler {
 
     @Nullable
     public static ClassFileFactory compileModule(CompilerConfiguration configuration, Module moduleBuilder, File directory) {
+        return compileModule(configuration, moduleBuilder, directory, null);
+    }
+
+    @Nullable
+    private static ClassFileFactory compileModule(
+            CompilerConfiguration configuration,
+            Module moduleBuilder,
+            File directory,
+            @Nullable ClassFileSink sink
+    ) {
         if (moduleBuilder.getSourceFiles().isEmpty()) {
             throw new CompileEnvironmentException("No source files where defined in module " + moduleBuilder.getModuleName());
         }
@@ -104,7 +114,7 @@ public class KotlinToJVMBytecodeCompiler {
             moduleEnvironment = new JetCoreEnvironment(parentDisposable, compilerConfiguration);
 
 
-            GenerationState generationState = analyzeAndGenerate(moduleEnvironment);
+            GenerationState generationState = analyzeAndGenerate(moduleEnvironment, sink);
             if (generationState == null) {
                 return null;
             }
@@ -125,30 +135,22 @@ public class KotlinToJVMBytecodeCompiler {
             boolean jarRuntime) {
 
         for (Module moduleBuilder : modules) {
-            ClassFileFactory moduleFactory = compileModule(configuration, moduleBuilder, directory);
-            if (moduleFactory == null) {
-                return false;
-            }
+            CompileEnvironmentUtil.OutputSink sink;
             if (outputDir != null) {
-                CompileEnvironmentUtil.writeToOutputDirectory(moduleFactory, outputDir);
+                sink = new CompileEnvironmentUtil.OutputDirectorySink(outputDir);
             }
             else {
                 File path = jarPath != null ? jarPath : new File(directory, moduleBuilder.getModuleName() + ".jar");
-                FileOutputStream outputStream = null;
-                try {
-                    outputStream = new FileOutputStream(path);
-                    CompileEnvironmentUtil.writeToJar(moduleFactory, outputStream, null, jarRuntime);
-                    outputStream.close();
-                }
-                catch (FileNotFoundException e) {
-                    throw new CompileEnvironmentException("Invalid jar path " + path, e);
-                }
-                catch (IOException e) {
-                    throw ExceptionUtils.rethrow(e);
-                }
-                finally {
-                    ExceptionUtils.closeQuietly(outputStream);
+                sink = new CompileEnvironmentUtil.JarSink(path, null, jarRuntime);
+            }
+            try {
+                if (compileModule(configuration, moduleBuilder, directory, sink) == null) {
+                    return false;
                 }
+                sink.finish();
+            }
+            finally {
+                ExceptionUtils.closeQuietly(sink);
             }
         }
         return true;
@@ -177,42 +179,34 @@ public class KotlinToJVMBytecodeCompiler {
             boolean includeRuntime
     ) {
 
-        FqName mainClass = findMainClass(environment.getSourceFiles());
-
-        GenerationState generationState = analyzeAndGenerate(environment);
-        if (generationState == null) {
-            return false;
+        CompileEnvironmentUtil.OutputSink sink;
+        if (jar != null) {
+            FqName mainClass = findMainClass(environment.getSourceFiles());
+            sink = new CompileEnvironmentUtil.JarSink(jar, mainClass, includeRuntime);
+        }
+        else if (outputDir != null) {
+            sink = new CompileEnvironmentUtil.OutputDirectorySink(outputDir);
+        }
+        else {
+            throw new CompileEnvironmentException("Output directory or jar file is not specified - no files will be saved to the disk");
         }
 
         try {
-            ClassFileFactory factory = generationState.getFactory();
-            if (jar != null) {
-                FileOutputStream os = null;
-                try {
-                    os = new FileOutputStream(jar);
-                    CompileEnvironmentUtil.writeToJar(factory, new FileOutputStream(jar), mainClass, includeRuntime);
-                    os.close();
-                }
-                catch (FileNotFoundException e) {
-                    throw new CompileEnvironmentException("Invalid jar path " + jar, e);
-                }
-                catch (IOException e) {
-                    throw ExceptionUtils.rethrow(e);
-                }
-                finally {
-                    ExceptionUtils.closeQuietly(os);
-                }
+            GenerationState generationState = analyzeAndGenerate(environment, sink);
+            if (generationState == null) {
+                return false;
             }
-            else if (outputDir != null) {
-                CompileEnvironmentUtil.writeToOutputDirectory(factory, outputDir);
+
+            try {
+                sink.finish();
+                return true;
             }
-            else {
-                throw new CompileEnvironmentException("Output directory or jar file is not specified - no files will be saved to the disk");
+            finally {
+                generationState.destroy();
             }
-            return true;
         }
         finally {
-            generationState.destroy();
+            ExceptionUtils.closeQuietly(sink);
         }
     }
 
@@ -238,7 +232,16 @@ public class KotlinToJVMBytecodeCompiler {
 
     private static Class<?> compileScript(
             @NotNull KotlinPaths paths, @NotNull JetCoreEnvironment environment, @Nullable ClassLoader parentLoader) {
+        return compileScript(paths, environment, parentLoader, null, null);
+    }
 
+    private static Class<?> compileScript(
+            @NotNull KotlinPaths paths,
+            @NotNull JetCoreEnvironment environment,
+            @Nullable ClassLoader parentLoader,
+            @Nullable CompiledScriptCache cache,
+            @Nullable String cacheKey
+    ) {
         GenerationState generationState = analyzeAndGenerate(environment);
         if (generationState == null) {
             return null;
@@ -247,6 +250,12 @@ public class KotlinToJVMBytecodeCompiler {
         GeneratedClassLoader classLoader = null;
         try {
             ClassFileFactory factory = generationState.getFactory();
+            JetFile scriptFile = environment.getSourceFiles().get(0);
+            String scriptClassName = ScriptNameUtil.classNameForScript(scriptFile);
+            if (cache != null && cacheKey != null) {
+                cache.store(cacheKey, factory, scriptClassName);
+            }
+
             classLoader = new GeneratedClassLoader(factory,
                     new URLClassLoader(new URL[] {
                         // TODO: add all classpath
@@ -254,8 +263,7 @@ public class KotlinToJVMBytecodeCompiler {
                     },
                     parentLoader == null ? AllModules.class.getClassLoader() : parentLoader));
 
-            JetFile scriptFile = environment.getSourceFiles().get(0);
-            return classLoader.loadClass(ScriptNameUtil.classNameForScript(scriptFile));
+            return classLoader.loadClass(scriptClassName);
         }
         catch (Exception e) {
             throw new RuntimeException("Failed to evaluate script: " + e, e);
@@ -270,8 +278,17 @@ public class KotlinToJVMBytecodeCompiler {
 
     @Nullable
     public static GenerationState analyzeAndGenerate(JetCoreEnvironment environment) {
+        return analyzeAndGenerate(environment, (ClassFileSink) null);
+    }
+
+    /**
+     * If the sink is not null, class files are written to it during generation and can't be obtained from the factory
+     * of the resulting state
+     */
+    @Nullable
+    public static GenerationState analyzeAndGenerate(JetCoreEnvironment environment, @Nullable ClassFileSink sink) {
         return analyzeAndGenerate(environment, environment.getConfiguration().get(JVMConfigurationKeys.STUBS, false),
-                                  environment.getConfiguration().getList(JVMConfigurationKeys.SCRIPT_PARAMETERS));
+                                  environment.getConfiguration().getList(JVMConfigurationKeys.SCRIPT_PARAMETERS), sink);
     }
 
     @Nullable
@@ -288,6 +305,16 @@ public class KotlinToJVMBytecodeCompiler {
             JetCoreEnvironment environment,
             boolean stubs,
             List<AnalyzerScriptParameter> scriptParameters
+    ) {
+        return analyzeAndGenerate(environment, stubs, scriptParameters, null);
+    }
+
+    @Nullable
+    private static GenerationState analyzeAndGenerate(
+            JetCoreEnvironment environment,
+            boolean stubs,
+            List<AnalyzerScriptParameter> scriptParameters,
+            @Nullable ClassFileSink sink
     ) {
         AnalyzeExhaust exhaust = analyze(environment, scriptParameters, stubs);
 
@@ -297,7 +324,7 @@ public class KotlinToJVMBytecodeCompiler {
 
         exhaust.throwIfError();
 
-        return generate(environment, exhaust, stubs);
+        return generate(environment, exhaust, stubs, sink);
     }
 
     @Nullable
@@ -305,6 +332,8 @@ public class KotlinToJVMBytecodeCompiler {
             final JetCoreEnvironment environment,
             final List<AnalyzerScriptParameter> scriptParameters,
             boolean stubs) {
+        environment.parseSources();
+
         AnalyzerWithCompilerReport analyzerWithCompilerReport = new AnalyzerWithCompilerReport(
                 environment.getConfiguration().get(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY));
         final Predicate<PsiFile> filesToAnalyzeCompletely =
@@ -334,7 +363,8 @@ public class KotlinToJVMBytecodeCompiler {
     private static GenerationState generate(
             JetCoreEnvironment environment,
             AnalyzeExhaust exhaust,
-            boolean stubs) {
+            boolean stubs,
+            @Nullable ClassFileSink sink) {
         Project project = environment.getProject();
         final CompilerConfiguration configuration = environment.getConfiguration();
         Progress backendProgress = new Progress() {
@@ -352,13 +382,17 @@ public class KotlinToJVMBytecodeCompiler {
             }
         };
         GenerationState generationState = new GenerationState(
-                project, ClassBuilderFactories.binaries(stubs), backendProgress, exhaust.getBindingContext(), environment.getSourceFiles(),
+                project, ClassBuilderFactories.binaries(stubs, getClasspathRoots(configuration)), backendProgress, exhaust.getBindingContext(), environment.getSourceFiles(),
                 configuration.get(JVMConfigurationKeys.BUILTIN_TO_JAVA_TYPES_MAPPING_KEY, BuiltinToJavaTypesMapping.ENABLED),
                 configuration.get(JVMConfigurationKeys.GENERATE_NOT_NULL_ASSERTIONS, false),
                 configuration.get(JVMConfigurationKeys.GENERATE_NOT_NULL_PARAMETER_ASSERTIONS, false),
                 /*generateDeclaredClasses = */true
         );
+        generationState.getFactory().setSink(sink);
         KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION);
+        if (sink != null) {
+            generationState.getFactory().flush();
+        }
 
         CompilerPluginContext context = new CompilerPluginContext(project, exhaust.getBindingContext(), environment.getSourceFiles());
         for (CompilerPlugin plugin : configuration.getList(CLIConfigurationKeys.COMPILER_PLUGINS)) {
@@ -367,19 +401,65 @@ public class KotlinToJVMBytecodeCompiler {
         return generationState;
     }
 
+    @NotNull
+    private static List<VirtualFile> getClasspathRoots(@NotNull CompilerConfiguration configuration) {
+        List<VirtualFile> roots = Lists.newArrayList();
+        for (File file : configuration.getList(JVMConfigurationKeys.CLASSPATH_KEY)) {
+            if (file.exists()) {
+                VirtualFile root = PathUtil.jarFileOrDirectoryToVirtualFile(file);
+                if (root != null) {
+                    roots.add(root);
+                }
+            }
+        }
+        return roots;
+    }
+
     public static Class compileScript(
             @NotNull ClassLoader parentLoader,
             @NotNull KotlinPaths paths,
             @NotNull String scriptPath,
             @Nullable List<AnalyzerScriptParameter> scriptParameters,
             @Nullable List<JetScriptDefinition> scriptDefinitions) {
+        return compileScript(parentLoader, paths, scriptPath, scriptParameters, scriptDefinitions, null);
+    }
+
+    /**
+     * If the cache is given and already contains the script compiled with the same compiler, classpath and parameters,
+     * the script class is loaded from the cache without creating the compilation environment.
+     */
+    public static Class compileScript(
+            @NotNull ClassLoader parentLoader,
+            @NotNull KotlinPaths paths,
+            @NotNull String scriptPath,
+            @Nullable List<AnalyzerScriptParameter> scriptParameters,
+            @Nullable List<JetScriptDefinition> scriptDefinitions,
+            @Nullable CompiledScriptCache cache) {
+        Collection<File> classpath = getClasspath(parentLoader);
+
+        String cacheKey = null;
+        if (cache != null) {
+            try {
+                cacheKey = cache.computeKey(new File(scriptPath), classpath, scriptParameters, scriptDefinitions);
+            }
+            catch (IOException e) {
+                // The script can't be read, compilation will report it
+            }
+            if (cacheKey != null) {
+                Class<?> cached = cache.load(cacheKey, paths, parentLoader);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+
         MessageRenderer messageRenderer = MessageRenderer.PLAIN;
         GroupingMessageCollector messageCollector = new GroupingMessageCollector(new PrintingMessageCollector(System.err, messageRenderer, false));
         Disposable rootDisposable = CompileEnvironmentUtil.createMockDisposable();
         try {
             CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
             compilerConfiguration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, messageCollector);
-            compilerConfiguration.addAll(JVMConfigurationKeys.CLASSPATH_KEY, getClasspath(parentLoader));
+            compilerConfiguration.addAll(JVMConfigurationKeys.CLASSPATH_KEY, classpath);
             compilerConfiguration.add(JVMConfigurationKeys.CLASSPATH_KEY, PathUtil.findRtJar());
             compilerConfiguration.addAll(JVMConfigurationKeys.ANNOTATIONS_PATH_KEY, Collections.singletonList(
                     paths.getJdkAnnotationsPath()));
@@ -392,7 +472,7 @@ public class KotlinToJVMBytecodeCompiler {
 
             try {
                 JetScriptDefinitionProvider.getInstance(environment.getProject()).markFileAsScript(environment.getSourceFiles().get(0));
-                return compileScript(paths, environment, parentLoader);
+                return compileScript(paths, environment, parentLoader, cache, cacheKey);
             }
             catch (CompilationException e) {
                 messageCollector.report(CompilerMessageSeverity.EXCEPTION, MessageRenderer.PLAIN.renderException(e),
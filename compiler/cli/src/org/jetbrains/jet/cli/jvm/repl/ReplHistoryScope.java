@@ -0,0 +1,108 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.repl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.descriptors.*;
+import org.jetbrains.jet.lang.psi.*;
+import org.jetbrains.jet.lang.resolve.BindingContext;
+import org.jetbrains.jet.lang.resolve.BindingTraceContext;
+import org.jetbrains.jet.lang.resolve.Importer;
+import org.jetbrains.jet.lang.resolve.QualifiedExpressionResolver;
+import org.jetbrains.jet.lang.resolve.QualifiedExpressionResolver.LookupMode;
+import org.jetbrains.jet.lang.resolve.scopes.JetScope;
+import org.jetbrains.jet.lang.resolve.scopes.RedeclarationHandler;
+import org.jetbrains.jet.lang.resolve.scopes.WritableScopeImpl;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Declarations of all the lines evaluated so far, collected in a single scope.
+ *
+ * Importing the scope of the previous line would make every lookup walk through the scopes of all earlier lines,
+ * so instead the declarations of each line are copied here once it is analyzed. Variables and classes of later lines
+ * replace the ones with the same name, functions are accumulated, as they were when the line scopes were chained.
+ * Explicit imports of a line are imported here again, so that they stay visible in the following lines.
+ */
+class ReplHistoryScope extends WritableScopeImpl {
+    // Latest line first
+    private final List<ReceiverParameterDescriptor> scriptReceivers = new LinkedList<ReceiverParameterDescriptor>();
+
+    public ReplHistoryScope(@NotNull DeclarationDescriptor owner) {
+        super(JetScope.EMPTY, owner, RedeclarationHandler.DO_NOTHING, "REPL history");
+        changeLockLevel(LockLevel.BOTH);
+    }
+
+    public void addLine(
+            @NotNull JetFile file,
+            @NotNull JetScript script,
+            @NotNull ScriptDescriptor scriptDescriptor,
+            @NotNull JetScope lineScope,
+            @NotNull BindingContext bindingContext,
+            @NotNull JetScope rootScope,
+            @NotNull ModuleDescriptor module
+    ) {
+        addImports(file.getImportDirectives(), rootScope, module);
+        addImports(script.getImportDirectives(), rootScope, module);
+
+        for (DeclarationDescriptor descriptor : lineScope.getOwnDeclaredDescriptors()) {
+            if (descriptor instanceof VariableDescriptor) {
+                addVariableDescriptor((VariableDescriptor) descriptor);
+            }
+            else if (descriptor instanceof ClassifierDescriptor) {
+                addClassifierDescriptor((ClassifierDescriptor) descriptor);
+            }
+        }
+
+        // Functions are not among the own declared descriptors of a scope
+        for (JetDeclaration declaration : script.getDeclarations()) {
+            if (declaration instanceof JetNamedFunction) {
+                SimpleFunctionDescriptor function = bindingContext.get(BindingContext.FUNCTION, declaration);
+                if (function != null) {
+                    addFunctionDescriptor(function);
+                }
+            }
+        }
+
+        addClassifierDescriptor(scriptDescriptor.getClassDescriptor());
+        scriptReceivers.add(0, scriptDescriptor.getThisAsReceiverParameter());
+    }
+
+    private void addImports(@NotNull List<JetImportDirective> directives, @NotNull JetScope rootScope, @NotNull ModuleDescriptor module) {
+        if (directives.isEmpty()) return;
+
+        // Default imports are not repeated here: every line gets them in its own file scope
+        // Errors in the directives have already been reported when the line was analyzed
+        QualifiedExpressionResolver resolver = new QualifiedExpressionResolver();
+        Importer.DelayedImporter importer = new Importer.DelayedImporter(this);
+        for (JetImportDirective directive : directives) {
+            resolver.processImportReference(directive, rootScope, this, importer, new BindingTraceContext(), module, LookupMode.EVERYTHING);
+        }
+        importer.processImports();
+    }
+
+    @NotNull
+    @Override
+    public List<ReceiverParameterDescriptor> getImplicitReceiversHierarchy() {
+        checkMayRead();
+
+        // Not cached by the superclass: new receivers are added after the scope has been read
+        return Collections.unmodifiableList(scriptReceivers);
+    }
+}
@@ -69,8 +69,8 @@ import java.util.List;
 public class ReplInterpreter {
 
     private int lineNumber = 0;
-    @Nullable
-    private JetScope lastLineScope;
+    @NotNull
+    private final ReplHistoryScope historyScope;
     private List<EarlierLine> earlierLines = Lists.newArrayList();
     private List<String> previousIncompleteLines = Lists.newArrayList();
     private final ReplClassLoader classLoader;
@@ -96,6 +96,7 @@ public class ReplInterpreter {
                 Collections.<AnalyzerScriptParameter>emptyList());
         injector = new InjectorForTopDownAnalyzerForJvm(project, topDownAnalysisParameters, trace, module);
         module.setModuleConfiguration(injector.getJavaBridgeConfiguration());
+        historyScope = new ReplHistoryScope(module);
 
         List<URL> classpath = Lists.newArrayList();
 
@@ -286,9 +287,7 @@ public class ReplInterpreter {
         // This makes the namespaces visible at all, does not import themselves
         scope.importScope(rootNs.getMemberScope());
 
-        if (lastLineScope != null) {
-            scope.importScope(lastLineScope);
-        }
+        scope.importScope(historyScope);
 
         scope.changeLockLevel(WritableScope.LockLevel.READING);
 
@@ -302,10 +301,11 @@ public class ReplInterpreter {
         }
 
         ScriptDescriptor scriptDescriptor = injector.getTopDownAnalysisContext().getScripts().get(psiFile.getScript());
-        lastLineScope = trace.get(BindingContext.SCRIPT_SCOPE, scriptDescriptor);
+        JetScope lastLineScope = trace.get(BindingContext.SCRIPT_SCOPE, scriptDescriptor);
         if (lastLineScope == null) {
             throw new IllegalStateException("last line scope is not initialized");
         }
+        historyScope.addLine(psiFile, psiFile.getScript(), scriptDescriptor, lastLineScope, trace.getBindingContext(), scope, module);
 
         return scriptDescriptor;
     }
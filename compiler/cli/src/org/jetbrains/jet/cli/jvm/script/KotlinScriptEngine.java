@@ -0,0 +1,138 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.script;
+
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.cli.jvm.compiler.CommandLineScriptUtils;
+import org.jetbrains.jet.cli.jvm.compiler.CompiledScriptCache;
+import org.jetbrains.jet.cli.jvm.compiler.KotlinToJVMBytecodeCompiler;
+import org.jetbrains.jet.lang.parsing.JetParserDefinition;
+import org.jetbrains.jet.lang.resolve.ScriptNameUtil;
+import org.jetbrains.jet.utils.KotlinPaths;
+
+import javax.script.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Evaluates scripts with the same parameters as the command line compiler: the only one is "args", it is taken from
+ * the {@link ScriptEngine#ARGV} attribute of the context. Other bindings are not visible to the script, since script
+ * parameters are declarations resolved at compile time. The result of evaluation is the value of the last expression
+ * of the script.
+ */
+public class KotlinScriptEngine extends AbstractScriptEngine {
+    // The name doesn't depend on the text, so that the same script is found in the cache
+    private static final String SCRIPT_FILE_NAME = "script." + JetParserDefinition.KTSCRIPT_FILE_SUFFIX;
+
+    private final ScriptEngineFactory factory;
+    private final KotlinPaths paths;
+    private final CompiledScriptCache cache;
+
+    public KotlinScriptEngine(@NotNull ScriptEngineFactory factory, @NotNull KotlinPaths paths, @NotNull CompiledScriptCache cache) {
+        this.factory = factory;
+        this.paths = paths;
+        this.cache = cache;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        Class<?> scriptClass = compile(script);
+
+        Object scriptInstance;
+        try {
+            scriptInstance = scriptClass.getConstructor(String[].class).newInstance(new Object[] {getArgs(context)});
+        }
+        catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw (ScriptException) new ScriptException("Script evaluation failed: " + cause).initCause(cause);
+        }
+        catch (Exception e) {
+            throw (ScriptException) new ScriptException("Failed to evaluate script: " + e).initCause(e);
+        }
+
+        try {
+            Field rvField = scriptClass.getDeclaredField(ScriptNameUtil.LAST_EXPRESSION_VALUE_FIELD_NAME);
+            rvField.setAccessible(true);
+            return rvField.get(scriptInstance);
+        }
+        catch (NoSuchFieldException e) {
+            return null;
+        }
+        catch (IllegalAccessException e) {
+            throw (ScriptException) new ScriptException("Failed to get the result of the script: " + e).initCause(e);
+        }
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        String script;
+        try {
+            script = FileUtil.loadTextAndClose(reader);
+        }
+        catch (IOException e) {
+            throw (ScriptException) new ScriptException("Failed to read the script: " + e).initCause(e);
+        }
+        return eval(script, context);
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    @NotNull
+    private Class<?> compile(@NotNull String script) throws ScriptException {
+        File directory = null;
+        try {
+            directory = FileUtil.createTempDirectory("kotlin-script", null);
+            File scriptFile = new File(directory, SCRIPT_FILE_NAME);
+            FileUtil.writeToFile(scriptFile, script);
+
+            Class<?> scriptClass = KotlinToJVMBytecodeCompiler.compileScript(
+                    KotlinScriptEngine.class.getClassLoader(), paths, scriptFile.getPath(),
+                    CommandLineScriptUtils.scriptParameters(), null, cache);
+            if (scriptClass == null) {
+                // The errors are reported to System.err by the compiler
+                throw new ScriptException("Failed to compile the script");
+            }
+            return scriptClass;
+        }
+        catch (IOException e) {
+            throw (ScriptException) new ScriptException("Failed to write the script to a temporary file: " + e).initCause(e);
+        }
+        finally {
+            if (directory != null) {
+                FileUtil.delete(directory);
+            }
+        }
+    }
+
+    @NotNull
+    private static String[] getArgs(@NotNull ScriptContext context) {
+        Object args = context.getAttribute(ARGV);
+        return args instanceof String[] ? (String[]) args : new String[0];
+    }
+}
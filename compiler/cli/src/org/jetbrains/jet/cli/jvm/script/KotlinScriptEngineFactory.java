@@ -0,0 +1,150 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.script;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jet.cli.common.KotlinVersion;
+import org.jetbrains.jet.cli.jvm.compiler.CompiledScriptCache;
+import org.jetbrains.jet.lang.parsing.JetParserDefinition;
+import org.jetbrains.jet.utils.KotlinPaths;
+import org.jetbrains.jet.utils.PathUtil;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registered in META-INF/services, so that the engine can be obtained from {@link javax.script.ScriptEngineManager}
+ * by the name "kotlin". Compiled scripts are kept in the directory given by the "kotlin.script.cache.dir" system
+ * property, or in ~/.kotlin/scripts.
+ */
+public class KotlinScriptEngineFactory implements ScriptEngineFactory {
+    public static final String CACHE_DIR_PROPERTY = "kotlin.script.cache.dir";
+
+    private static final String NAME = "kotlin";
+
+    private final KotlinPaths paths;
+    private final CompiledScriptCache cache;
+
+    @SuppressWarnings("UnusedDeclaration") // Used by ServiceLoader
+    public KotlinScriptEngineFactory() {
+        this(PathUtil.getKotlinPathsForCompiler(), new CompiledScriptCache(getDefaultCacheDirectory()));
+    }
+
+    public KotlinScriptEngineFactory(@NotNull KotlinPaths paths, @NotNull CompiledScriptCache cache) {
+        this.paths = paths;
+        this.cache = cache;
+    }
+
+    @NotNull
+    private static File getDefaultCacheDirectory() {
+        String directory = System.getProperty(CACHE_DIR_PROPERTY);
+        if (directory != null) {
+            return new File(directory);
+        }
+        return new File(System.getProperty("user.home"), ".kotlin" + File.separator + "scripts");
+    }
+
+    @Override
+    public String getEngineName() {
+        return "Kotlin";
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return KotlinVersion.VERSION;
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return Arrays.asList(JetParserDefinition.KTSCRIPT_FILE_SUFFIX, "kts");
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return Collections.singletonList("text/x-kotlin");
+    }
+
+    @Override
+    public List<String> getNames() {
+        return Collections.singletonList(NAME);
+    }
+
+    @Override
+    public String getLanguageName() {
+        return "Kotlin";
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return KotlinVersion.VERSION;
+    }
+
+    @Nullable
+    @Override
+    public Object getParameter(String key) {
+        if (ScriptEngine.ENGINE.equals(key)) return getEngineName();
+        if (ScriptEngine.ENGINE_VERSION.equals(key)) return getEngineVersion();
+        if (ScriptEngine.NAME.equals(key)) return NAME;
+        if (ScriptEngine.LANGUAGE.equals(key)) return getLanguageName();
+        if (ScriptEngine.LANGUAGE_VERSION.equals(key)) return getLanguageVersion();
+        // "THREADING" is not set: engines must not be used from several threads at once
+        return null;
+    }
+
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        StringBuilder sb = new StringBuilder(obj).append('.').append(m).append('(');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(args[i]);
+        }
+        return sb.append(')').toString();
+    }
+
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        StringBuilder sb = new StringBuilder("println(\"");
+        for (char c : toDisplay.toCharArray()) {
+            if (c == '"' || c == '\\' || c == '$') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.append("\")").toString();
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+        StringBuilder sb = new StringBuilder();
+        for (String statement : statements) {
+            sb.append(statement).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new KotlinScriptEngine(this, paths, cache);
+    }
+}
@@ -31,10 +31,7 @@ import org.jetbrains.jet.lang.psi.JetExpression;
 import org.jetbrains.jet.lang.resolve.BindingContext;
 import org.jetbrains.jet.lang.resolve.BindingContextUtils;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 
 public class DiagnosticUtils {
     @NotNull
@@ -160,11 +157,20 @@ public class DiagnosticUtils {
 
     @NotNull
     public static List<Diagnostic> sortedDiagnostics(@NotNull Collection<Diagnostic> diagnostics) {
+        // Paths are built by walking up the virtual file hierarchy, so they are computed once per file, not per comparison
+        final Map<PsiFile, String> paths = new HashMap<PsiFile, String>();
+        for (Diagnostic diagnostic : diagnostics) {
+            PsiFile file = diagnostic.getPsiFile();
+            if (!paths.containsKey(file)) {
+                paths.put(file, file.getViewProvider().getVirtualFile().getPath());
+            }
+        }
+
         Comparator<Diagnostic> diagnosticComparator = new Comparator<Diagnostic>() {
             @Override
             public int compare(Diagnostic d1, Diagnostic d2) {
-                String path1 = d1.getPsiFile().getViewProvider().getVirtualFile().getPath();
-                String path2 = d2.getPsiFile().getViewProvider().getVirtualFile().getPath();
+                String path1 = paths.get(d1.getPsiFile());
+                String path2 = paths.get(d2.getPsiFile());
                 if (!path1.equals(path2)) return path1.compareTo(path2);
 
                 TextRange range1 = firstRange(d1.getTextRanges());
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.diagnostics;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.Iterators;
+import com.intellij.psi.PsiFile;
+import gnu.trove.TIntArrayList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Diagnostics grouped by the file they are reported in. The IDE uses one binding context for all the files of a project,
+ * and highlighting a file should not go through the diagnostics of all the other files.
+ *
+ * Iteration over the whole collection returns the diagnostics in the order they were reported.
+ */
+public class DiagnosticsByFile extends AbstractCollection<Diagnostic> {
+    private final List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+
+    // Diagnostics are mostly reported file after file, so the indices of the diagnostics of a file are kept
+    // as a short list of [start, end) ranges in the list above
+    private final Map<PsiFile, TIntArrayList> rangesByFile = new HashMap<PsiFile, TIntArrayList>();
+
+    @Override
+    public boolean add(@NotNull Diagnostic diagnostic) {
+        PsiFile file = diagnostic.getPsiFile();
+        TIntArrayList ranges = rangesByFile.get(file);
+        if (ranges == null) {
+            ranges = new TIntArrayList(2);
+            rangesByFile.put(file, ranges);
+        }
+
+        int index = diagnostics.size();
+        diagnostics.add(diagnostic);
+
+        int lastEnd = ranges.size() - 1;
+        if (lastEnd > 0 && ranges.get(lastEnd) == index) {
+            ranges.set(lastEnd, index + 1);
+        }
+        else {
+            ranges.add(index);
+            ranges.add(index + 1);
+        }
+        return true;
+    }
+
+    @NotNull
+    public Collection<Diagnostic> forFile(@NotNull PsiFile file) {
+        TIntArrayList ranges = rangesByFile.get(file);
+        if (ranges == null) {
+            return Collections.emptyList();
+        }
+
+        List<Diagnostic> result = new ArrayList<Diagnostic>();
+        for (int i = 0; i < ranges.size(); i += 2) {
+            result.addAll(diagnostics.subList(ranges.get(i), ranges.get(i + 1)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Diagnostic> iterator() {
+        return Iterators.unmodifiableIterator(diagnostics.iterator());
+    }
+
+    @Override
+    public int size() {
+        return diagnostics.size();
+    }
+
+    @Override
+    public void clear() {
+        diagnostics.clear();
+        rangesByFile.clear();
+    }
+
+    @NotNull
+    public static Collection<Diagnostic> forFile(@NotNull Collection<Diagnostic> diagnostics, @NotNull final PsiFile file) {
+        if (diagnostics instanceof DiagnosticsByFile) {
+            return ((DiagnosticsByFile) diagnostics).forFile(file);
+        }
+        return Collections2.filter(diagnostics, new Predicate<Diagnostic>() {
+            @Override
+            public boolean apply(Diagnostic diagnostic) {
+                return diagnostic.getPsiFile() == file;
+            }
+        });
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.parsing;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IErrorCounterReparseableElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.lang.psi.JetBlockExpression;
+import org.jetbrains.jet.lexer.JetLexer;
+import org.jetbrains.jet.lexer.JetTokens;
+import org.jetbrains.jet.plugin.JetLanguage;
+
+/**
+ * Blocks of function bodies are not parsed together with the declarations: the parser only finds the matching brace
+ * and leaves the text to be parsed when the contents of the block are first accessed.
+ *
+ * Blocks are also reparseable: when an edit stays within a block and its braces remain balanced, the IDE relexes
+ * and reparses only the text of the innermost such block, not the whole file. For this reason the type must only be used
+ * for blocks delimited by their own braces (see {@link org.jetbrains.jet.JetNodeTypes#BLOCK_WITHOUT_BRACES}).
+ * A block of a control structure becomes a function literal when a parameter list is typed in, so a block with an arrow
+ * outside of its nested braces is never reparsed on its own.
+ */
+public class JetBlockElementType extends IErrorCounterReparseableElementType {
+    public JetBlockElementType(@NotNull String debugName) {
+        super(debugName, JetLanguage.INSTANCE);
+    }
+
+    @Override
+    public ASTNode parseContents(ASTNode chameleon) {
+        Project project = chameleon.getTreeParent().getPsi().getProject();
+        PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(project, chameleon, new JetLexer(), getLanguage(),
+                                                                           chameleon.getChars());
+        return JetParser.parseBlockExpression(builder).getFirstChildNode();
+    }
+
+    @Override
+    public int getErrorsCount(CharSequence seq, Language fileLanguage, Project project) {
+        Lexer lexer = new JetLexer();
+        lexer.start(seq);
+        if (lexer.getTokenType() != JetTokens.LBRACE) return FATAL_ERROR;
+        lexer.advance();
+
+        int balance = 1;
+        while (true) {
+            IElementType type = lexer.getTokenType();
+            if (type == null) break;
+            // Closing brace of the block is not the last token
+            if (balance == 0) return FATAL_ERROR;
+
+            if (type == JetTokens.LBRACE) {
+                balance++;
+            }
+            else if (type == JetTokens.RBRACE) {
+                balance--;
+            }
+            else if (type == JetTokens.ARROW && balance == 1) {
+                // May end the parameter list of a function literal: {-> ...}, {(a, b) -> ...}, {a, b -> ...}
+                return FATAL_ERROR;
+            }
+            lexer.advance();
+        }
+        return balance;
+    }
+
+    @NotNull
+    public JetBlockExpression createPsi(@NotNull ASTNode node) {
+        assert node.getElementType() == this;
+        return new JetBlockExpression(node);
+    }
+}
@@ -1034,7 +1034,7 @@ public class JetExpressionParsing extends AbstractJetParsing {
 
         PsiBuilder.Marker body = mark();
         parseStatements();
-        body.done(BLOCK);
+        body.done(BLOCK_WITHOUT_BRACES);
 
         expect(RBRACE, "Expecting '}'");
         myBuilder.restoreNewlinesState();
@@ -65,4 +65,11 @@ public class JetParser implements PsiParser {
         jetParsing.parseExpressionCodeFragment();
         return psiBuilder.getTreeBuilt();
     }
+
+    @NotNull
+    public static ASTNode parseBlockExpression(PsiBuilder psiBuilder) {
+        JetParsing jetParsing = JetParsing.createForTopLevel(new SemanticWhitespaceAwarePsiBuilderImpl(psiBuilder));
+        jetParsing.parseBlockExpression();
+        return psiBuilder.getTreeBuilt();
+    }
 }
@@ -123,6 +123,25 @@ public class JetParsing extends AbstractJetParsing {
         marker.done(EXPRESSION_CODE_FRAGMENT);
     }
 
+    void parseBlockExpression() {
+        PsiBuilder.Marker marker = mark();
+
+        myBuilder.enableNewlines();
+        expect(LBRACE, "Expecting '{' to open a block");
+
+        myExpressionParsing.parseStatements();
+
+        expect(RBRACE, "Expecting '}");
+        myBuilder.restoreNewlinesState();
+
+        while (!eof()) {
+            error("unexpected symbol");
+            advance();
+        }
+
+        marker.done(BLOCK);
+    }
+
     void parseScript() {
         PsiBuilder.Marker fileMarker = mark();
 
@@ -135,7 +154,7 @@ public class JetParsing extends AbstractJetParsing {
 
         myExpressionParsing.parseStatements();
 
-        blockMarker.done(BLOCK);
+        blockMarker.done(BLOCK_WITHOUT_BRACES);
         scriptMarker.done(SCRIPT);
         fileMarker.done(JET_FILE);
     }
@@ -1163,7 +1182,7 @@ public class JetParsing extends AbstractJetParsing {
      */
     private void parseFunctionBody() {
         if (at(LBRACE)) {
-            parseBlock();
+            parseBlockLazily();
         }
         else if (at(EQ)) {
             advance(); // EQ
@@ -1194,6 +1213,35 @@ public class JetParsing extends AbstractJetParsing {
         block.done(BLOCK);
     }
 
+    /*
+     * Skips a block up to the matching brace, its contents are parsed on first access (see JetBlockElementType).
+     * If the braces are not balanced the block is parsed right away, so that error recovery works as usual
+     */
+    private void parseBlockLazily() {
+        assert _at(LBRACE);
+
+        PsiBuilder.Marker block = mark();
+        int depth = 0;
+        while (!eof()) {
+            IElementType tokenType = tt();
+            if (tokenType == LBRACE) {
+                depth++;
+            }
+            else if (tokenType == RBRACE) {
+                depth--;
+            }
+            advance();
+
+            if (depth == 0) {
+                block.collapse(BLOCK);
+                return;
+            }
+        }
+
+        block.rollbackTo();
+        parseBlock();
+    }
+
     /*
      * delegationSpecifier{","}
      */
@@ -17,17 +17,16 @@
 package org.jetbrains.jet.lang.resolve;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.jet.lang.diagnostics.Diagnostic;
+import org.jetbrains.jet.lang.diagnostics.DiagnosticsByFile;
 import org.jetbrains.jet.util.slicedmap.*;
 
 import java.util.Collection;
-import java.util.List;
 
 public class BindingTraceContext implements BindingTrace {
-    private final List<Diagnostic> diagnostics = Lists.newArrayList();
+    private final DiagnosticsByFile diagnostics = new DiagnosticsByFile();
 
     // This flag is used for debugging of "Rewrite at slice..." exceptions
     // NOTE: sometimes TrackingSlicedMap throws a ClassCastException (after you have fixed the rewrite).
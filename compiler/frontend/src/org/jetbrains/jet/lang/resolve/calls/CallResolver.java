@@ -518,27 +518,42 @@ public class CallResolver {
             @NotNull CallTransformer<D, F> callTransformer
     ) {
 
-        for (ResolutionCandidate<D> resolutionCandidate : task.getCandidates()) {
-            TemporaryBindingTrace candidateTrace = TemporaryBindingTrace.create(
-                    task.trace, "trace to resolve candidate");
-            Collection<CallCandidateResolutionContext<D>> contexts = callTransformer.createCallContexts(resolutionCandidate, task, candidateTrace);
-            for (CallCandidateResolutionContext<D> context : contexts) {
-
-                candidateResolver.performResolutionForCandidateCall(context, task);
-
-                /* important for 'variable as function case': temporary bind reference to descriptor (will be rewritten)
-                to have a binding to variable while 'invoke' call resolve */
-                task.tracing.bindReference(context.candidateCall.getTrace(), context.candidateCall);
-
-                Collection<ResolvedCallWithTrace<F>> calls = callTransformer.transformCall(context, this, task);
-
-                for (ResolvedCallWithTrace<F> call : calls) {
-                    task.tracing.bindReference(call.getTrace(), call);
-                    task.tracing.bindResolvedCall(call.getTrace(), call);
-                    task.getResolvedCalls().add(call);
+        // Candidates that can't accept the given number of arguments are resolved only if no other candidate turns out to be
+        // applicable: otherwise they would be discarded anyway, and full resolution with type inference is expensive for them
+        List<ResolutionCandidate<D>> candidates = Lists.newArrayList(task.getCandidates());
+        boolean pruneInapplicable = task.checkArguments == CheckValueArgumentsMode.ENABLED && candidates.size() > 1;
+
+        List<Collection<ResolvedCallWithTrace<F>>> callsForCandidates = Lists.newArrayListWithCapacity(candidates.size());
+        boolean anyApplicable = false;
+        int pruned = 0;
+        for (ResolutionCandidate<D> resolutionCandidate : candidates) {
+            D descriptor = resolutionCandidate.getDescriptor();
+            if (pruneInapplicable && descriptor instanceof FunctionDescriptor &&
+                ValueArgumentsToParametersMapper.isDefinitelyInapplicable(task.call, descriptor)) {
+                callsForCandidates.add(null);
+                pruned++;
+                continue;
+            }
+            Collection<ResolvedCallWithTrace<F>> calls = resolveCandidate(resolutionCandidate, task, callTransformer);
+            callsForCandidates.add(calls);
+            anyApplicable |= containsApplicableCall(calls);
+        }
+        if (!anyApplicable && pruned > 0) {
+            for (int i = 0; i < candidates.size(); i++) {
+                if (callsForCandidates.get(i) == null) {
+                    callsForCandidates.set(i, resolveCandidate(candidates.get(i), task, callTransformer));
                 }
             }
+            pruned = 0;
+        }
+
+        // Keep the original order of candidates, it affects the order in which failed candidates are reported
+        for (Collection<ResolvedCallWithTrace<F>> calls : callsForCandidates) {
+            if (calls != null) {
+                task.getResolvedCalls().addAll(calls);
+            }
         }
+        recordCandidateStatistics(task, candidates.size() - pruned, pruned);
 
         OverloadResolutionResultsImpl<F> results = ResolutionResultsHandler.INSTANCE.computeResultAndReportErrors(
                 task.trace, task.tracing, task.getResolvedCalls());
@@ -547,4 +562,53 @@ public class CallResolver {
         }
         return results;
     }
+
+    @NotNull
+    private <D extends CallableDescriptor, F extends D> Collection<ResolvedCallWithTrace<F>> resolveCandidate(
+            @NotNull ResolutionCandidate<D> resolutionCandidate,
+            @NotNull ResolutionTask<D, F> task,
+            @NotNull CallTransformer<D, F> callTransformer
+    ) {
+        TemporaryBindingTrace candidateTrace = TemporaryBindingTrace.create(
+                task.trace, "trace to resolve candidate");
+        Collection<CallCandidateResolutionContext<D>> contexts = callTransformer.createCallContexts(resolutionCandidate, task, candidateTrace);
+        List<ResolvedCallWithTrace<F>> result = Lists.newArrayList();
+        for (CallCandidateResolutionContext<D> context : contexts) {
+
+            candidateResolver.performResolutionForCandidateCall(context, task);
+
+            /* important for 'variable as function case': temporary bind reference to descriptor (will be rewritten)
+            to have a binding to variable while 'invoke' call resolve */
+            task.tracing.bindReference(context.candidateCall.getTrace(), context.candidateCall);
+
+            Collection<ResolvedCallWithTrace<F>> calls = callTransformer.transformCall(context, this, task);
+
+            for (ResolvedCallWithTrace<F> call : calls) {
+                task.tracing.bindReference(call.getTrace(), call);
+                task.tracing.bindResolvedCall(call.getTrace(), call);
+                result.add(call);
+            }
+        }
+        return result;
+    }
+
+    private static <F extends CallableDescriptor> boolean containsApplicableCall(@NotNull Collection<ResolvedCallWithTrace<F>> calls) {
+        for (ResolvedCallWithTrace<F> call : calls) {
+            ResolutionStatus status = call.getStatus();
+            if (status.isSuccess() || status == ResolutionStatus.INCOMPLETE_TYPE_INFERENCE) return true;
+        }
+        return false;
+    }
+
+    private static void recordCandidateStatistics(@NotNull ResolutionTask<?, ?> task, int examined, int pruned) {
+        if (!ResolutionDebugInfo.isResolutionDebugEnabled()) return;
+
+        ResolutionDebugInfo.Data debugInfo = task.trace.get(ResolutionDebugInfo.RESOLUTION_DEBUG_INFO, task.call.getCallElement());
+        if (debugInfo == null) return;
+
+        Integer examinedBefore = debugInfo.get(ResolutionDebugInfo.CANDIDATES_EXAMINED);
+        Integer prunedBefore = debugInfo.get(ResolutionDebugInfo.CANDIDATES_PRUNED);
+        debugInfo.set(ResolutionDebugInfo.CANDIDATES_EXAMINED, (examinedBefore != null ? examinedBefore : 0) + examined);
+        debugInfo.set(ResolutionDebugInfo.CANDIDATES_PRUNED, (prunedBefore != null ? prunedBefore : 0) + pruned);
+    }
 }
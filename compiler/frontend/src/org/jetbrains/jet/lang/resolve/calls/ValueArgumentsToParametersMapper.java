@@ -76,6 +76,36 @@ import static org.jetbrains.jet.lang.resolve.calls.ValueArgumentsToParametersMap
         return processor.status;
     }
 
+    /**
+     * A cheap conservative check which does not touch traces or types: returns true only if the mapping of the call's
+     * arguments to the candidate's parameters is bound to fail (wrong number of arguments), so the candidate can't be applicable.
+     * Calls with named arguments and candidates with varargs are never pruned.
+     */
+    public static boolean isDefinitelyInapplicable(@NotNull Call call, @NotNull CallableDescriptor candidate) {
+        List<? extends ValueArgument> arguments = call.getValueArguments();
+        for (ValueArgument argument : arguments) {
+            if (argument.isNamed()) return false;
+        }
+
+        List<ValueParameterDescriptor> parameters = candidate.getValueParameters();
+        for (ValueParameterDescriptor parameter : parameters) {
+            if (parameter.getVarargElementType() != null) return false;
+        }
+
+        int functionLiteralArguments = call.getFunctionLiteralArguments().size();
+        if (functionLiteralArguments > 1) return true;
+
+        int positionalArguments = arguments.size();
+        if (positionalArguments + functionLiteralArguments > parameters.size()) return true;
+
+        // A function literal argument goes to the last parameter, positional arguments cover a prefix
+        int lastUnmapped = parameters.size() - functionLiteralArguments;
+        for (int i = positionalArguments; i < lastUnmapped; i++) {
+            if (!parameters.get(i).hasDefaultValue()) return true;
+        }
+        return false;
+    }
+
     private static class Processor<D extends CallableDescriptor> {
         private final Call call;
         private final TracingStrategy tracing;
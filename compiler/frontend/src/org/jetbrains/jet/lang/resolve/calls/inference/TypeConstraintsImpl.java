@@ -18,16 +18,25 @@ package org.jetbrains.jet.lang.resolve.calls.inference;
 
 import com.google.common.collect.Sets;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jet.lang.types.JetType;
 import org.jetbrains.jet.lang.types.Variance;
 
+import java.util.Collections;
 import java.util.Set;
 
 public class TypeConstraintsImpl implements TypeConstraints {
     private final Variance varianceOfPosition;
-    private final Set<JetType> upperBounds = Sets.newLinkedHashSet();
-    private final Set<JetType> lowerBounds = Sets.newLinkedHashSet();
-    private final Set<JetType> exactBounds = Sets.newLinkedHashSet();
+    private Set<JetType> upperBounds = Sets.newLinkedHashSet();
+    private Set<JetType> lowerBounds = Sets.newLinkedHashSet();
+    private Set<JetType> exactBounds = Sets.newLinkedHashSet();
+
+    // Bound sets are shared with copies of these constraints until either of them adds a bound
+    private boolean boundsShared = false;
+
+    // Values computed from the current bounds, reset when a bound is added
+    @Nullable
+    private Set<JetType> values = null;
 
     public TypeConstraintsImpl(Variance varianceOfPosition) {
         this.varianceOfPosition = varianceOfPosition;
@@ -40,6 +49,14 @@ public class TypeConstraintsImpl implements TypeConstraints {
     }
 
     public void addBound(@NotNull BoundKind boundKind, @NotNull JetType type) {
+        if (boundsShared) {
+            upperBounds = Sets.newLinkedHashSet(upperBounds);
+            lowerBounds = Sets.newLinkedHashSet(lowerBounds);
+            exactBounds = Sets.newLinkedHashSet(exactBounds);
+            boundsShared = false;
+        }
+        values = null;
+
         switch (boundKind) {
             case LOWER_BOUND:
                 lowerBounds.add(type);
@@ -75,11 +92,22 @@ public class TypeConstraintsImpl implements TypeConstraints {
         return exactBounds;
     }
 
+    @NotNull
+    /*package*/ Set<JetType> getValues() {
+        if (values == null) {
+            values = Collections.unmodifiableSet(ConstraintsUtil.computeValues(this));
+        }
+        return values;
+    }
+
     /*package*/ TypeConstraintsImpl copy() {
         TypeConstraintsImpl typeConstraints = new TypeConstraintsImpl(varianceOfPosition);
-        typeConstraints.upperBounds.addAll(upperBounds);
-        typeConstraints.lowerBounds.addAll(lowerBounds);
-        typeConstraints.exactBounds.addAll(exactBounds);
+        typeConstraints.upperBounds = upperBounds;
+        typeConstraints.lowerBounds = lowerBounds;
+        typeConstraints.exactBounds = exactBounds;
+        typeConstraints.values = values;
+        typeConstraints.boundsShared = true;
+        boundsShared = true;
         return typeConstraints;
     }
 
@@ -35,6 +35,8 @@ import java.util.Map;
 public class ResolutionDebugInfo {
     public static final WritableSlice<One, List<? extends ResolutionTask<? extends CallableDescriptor, ?>>> TASKS = Slices.createSimpleSlice();
     public static final WritableSlice<One, ResolvedCall<? extends CallableDescriptor>> RESULT = Slices.createSimpleSlice();
+    public static final WritableSlice<One, Integer> CANDIDATES_EXAMINED = Slices.createSimpleSlice();
+    public static final WritableSlice<One, Integer> CANDIDATES_PRUNED = Slices.createSimpleSlice();
 
     public static final WritableSlice<ResolvedCall<? extends CallableDescriptor>, StringBuilder> ERRORS = Slices.createSimpleSlice();
     public static final WritableSlice<ResolvedCall<? extends CallableDescriptor>, StringBuilder> LOG = Slices.createSimpleSlice();
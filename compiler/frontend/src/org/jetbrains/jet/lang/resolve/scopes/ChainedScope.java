@@ -41,11 +41,35 @@ public class ChainedScope implements JetScope {
 
     public ChainedScope(DeclarationDescriptor containingDeclaration, String debugName, JetScope... scopes) {
         this.containingDeclaration = containingDeclaration;
-        scopeChain = scopes.clone();
+        scopeChain = flatten(scopes);
 
         this.debugName = debugName;
     }
 
+    // Nested chains are inlined, so that a lookup walks a single array instead of descending through every level of nesting
+    @NotNull
+    private static JetScope[] flatten(@NotNull JetScope[] scopes) {
+        boolean hasNestedChains = false;
+        for (JetScope scope : scopes) {
+            if (scope != null && scope.getClass() == ChainedScope.class) {
+                hasNestedChains = true;
+                break;
+            }
+        }
+        if (!hasNestedChains) return scopes.clone();
+
+        List<JetScope> result = Lists.newArrayList();
+        for (JetScope scope : scopes) {
+            if (scope != null && scope.getClass() == ChainedScope.class) {
+                Collections.addAll(result, ((ChainedScope) scope).scopeChain);
+            }
+            else {
+                result.add(scope);
+            }
+        }
+        return result.toArray(new JetScope[result.size()]);
+    }
+
     @Override
     public ClassifierDescriptor getClassifier(@NotNull Name name) {
         for (JetScope scope : scopeChain) {
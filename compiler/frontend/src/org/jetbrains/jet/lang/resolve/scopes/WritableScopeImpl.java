@@ -38,10 +38,6 @@ public class WritableScopeImpl extends WritableScopeWithImports {
     @NotNull
     private final DeclarationDescriptor ownerDeclarationDescriptor;
 
-    // FieldNames include "$"
-    @Nullable
-    private Map<Name, PropertyDescriptor> propertyDescriptorsByFieldNames;
-
     @Nullable
     private SetMultimap<Name, FunctionDescriptor> functionGroups;
 
@@ -162,8 +158,7 @@ public class WritableScopeImpl extends WritableScopeWithImports {
         checkMayRead();
 
         Collection<DeclarationDescriptor> superResult = super.getDeclarationsByLabel(labelName);
-        Map<LabelName, List<DeclarationDescriptor>> labelsToDescriptors = getLabelsToDescriptors();
-        List<DeclarationDescriptor> declarationDescriptors = labelsToDescriptors.get(labelName);
+        List<DeclarationDescriptor> declarationDescriptors = labelsToDescriptors != null ? labelsToDescriptors.get(labelName) : null;
         if (declarationDescriptors == null) {
             return superResult;
         }
@@ -195,6 +190,23 @@ public class WritableScopeImpl extends WritableScopeWithImports {
         return variableClassOrNamespaceDescriptors;
     }
 
+    // Lookups below read the declared tables directly and never allocate them: most local scopes declare only a few kinds of names
+
+    @Nullable
+    private DeclarationDescriptor getVariableClassOrNamespaceDescriptor(@NotNull Name name) {
+        return variableClassOrNamespaceDescriptors != null ? variableClassOrNamespaceDescriptors.get(name) : null;
+    }
+
+    @NotNull
+    private Set<VariableDescriptor> getPropertyGroup(@NotNull Name name) {
+        return propertyGroups != null ? propertyGroups.get(name) : Collections.<VariableDescriptor>emptySet();
+    }
+
+    @NotNull
+    private Set<FunctionDescriptor> getFunctionGroup(@NotNull Name name) {
+        return functionGroups != null ? functionGroups.get(name) : Collections.<FunctionDescriptor>emptySet();
+    }
+
     @NotNull
     private Map<Name, NamespaceDescriptor> getNamespaceAliases() {
         if (namespaceAliases == null) {
@@ -235,7 +247,7 @@ public class WritableScopeImpl extends WritableScopeWithImports {
     public Set<VariableDescriptor> getProperties(@NotNull Name name) {
         checkMayRead();
 
-        Set<VariableDescriptor> result = Sets.newLinkedHashSet(getPropertyGroups().get(name));
+        Set<VariableDescriptor> result = Sets.newLinkedHashSet(getPropertyGroup(name));
 
         result.addAll(getWorkerScope().getProperties(name));
 
@@ -248,9 +260,8 @@ public class WritableScopeImpl extends WritableScopeWithImports {
     public VariableDescriptor getLocalVariable(@NotNull Name name) {
         checkMayRead();
 
-        Map<Name, DeclarationDescriptor> variableClassOrNamespaceDescriptors = getVariableClassOrNamespaceDescriptors();
-        DeclarationDescriptor descriptor = variableClassOrNamespaceDescriptors.get(name);
-        if (descriptor instanceof VariableDescriptor && !getPropertyGroups().get(name).contains(descriptor)) {
+        DeclarationDescriptor descriptor = getVariableClassOrNamespaceDescriptor(name);
+        if (descriptor instanceof VariableDescriptor && !getPropertyGroup(name).contains(descriptor)) {
             return (VariableDescriptor) descriptor;
         }
 
@@ -290,7 +301,7 @@ public class WritableScopeImpl extends WritableScopeWithImports {
     public Collection<FunctionDescriptor> getFunctions(@NotNull Name name) {
         checkMayRead();
 
-        Set<FunctionDescriptor> result = Sets.newLinkedHashSet(getFunctionGroups().get(name));
+        Set<FunctionDescriptor> result = Sets.newLinkedHashSet(getFunctionGroup(name));
 
         result.addAll(getWorkerScope().getFunctions(name));
 
@@ -391,8 +402,7 @@ public class WritableScopeImpl extends WritableScopeWithImports {
     public ClassifierDescriptor getClassifier(@NotNull Name name) {
         checkMayRead();
 
-        Map<Name, DeclarationDescriptor> variableClassOrNamespaceDescriptors = getVariableClassOrNamespaceDescriptors();
-        DeclarationDescriptor descriptor = variableClassOrNamespaceDescriptors.get(name);
+        DeclarationDescriptor descriptor = getVariableClassOrNamespaceDescriptor(name);
         if (descriptor instanceof ClassifierDescriptor) return (ClassifierDescriptor) descriptor;
 
         ClassifierDescriptor classifierDescriptor = getWorkerScope().getClassifier(name);
@@ -403,7 +413,7 @@ public class WritableScopeImpl extends WritableScopeWithImports {
 
     @Override
     public ClassDescriptor getObjectDescriptor(@NotNull Name name) {
-        ClassDescriptor descriptor = getObjectDescriptorsMap().get(name);
+        ClassDescriptor descriptor = objectDescriptors != null ? objectDescriptors.get(name) : null;
         if (descriptor != null) return descriptor;
 
         ClassDescriptor fromWorker = getWorkerScope().getObjectDescriptor(name);
@@ -442,8 +452,7 @@ public class WritableScopeImpl extends WritableScopeWithImports {
     public NamespaceDescriptor getDeclaredNamespace(@NotNull Name name) {
         checkMayRead();
 
-        Map<Name, DeclarationDescriptor> variableClassOrNamespaceDescriptors = getVariableClassOrNamespaceDescriptors();
-        DeclarationDescriptor namespaceDescriptor = variableClassOrNamespaceDescriptors.get(name);
+        DeclarationDescriptor namespaceDescriptor = getVariableClassOrNamespaceDescriptor(name);
         if (namespaceDescriptor instanceof NamespaceDescriptor) return (NamespaceDescriptor) namespaceDescriptor;
         return null;
     }
@@ -455,7 +464,7 @@ public class WritableScopeImpl extends WritableScopeWithImports {
         NamespaceDescriptor declaredNamespace = getDeclaredNamespace(name);
         if (declaredNamespace != null) return declaredNamespace;
 
-        NamespaceDescriptor aliased = getNamespaceAliases().get(name);
+        NamespaceDescriptor aliased = namespaceAliases != null ? namespaceAliases.get(name) : null;
         if (aliased != null) return aliased;
 
         NamespaceDescriptor namespace = getWorkerScope().getNamespace(name);
@@ -483,15 +492,6 @@ public class WritableScopeImpl extends WritableScopeWithImports {
         return implicitReceiverHierarchy;
     }
 
-//    @SuppressWarnings({"NullableProblems"})
-    @NotNull
-    private Map<Name, PropertyDescriptor> getPropertyDescriptorsByFieldNames() {
-        if (propertyDescriptorsByFieldNames == null) {
-            propertyDescriptorsByFieldNames = new HashMap<Name, PropertyDescriptor>();
-        }
-        return propertyDescriptorsByFieldNames;
-    }
-
     @Override
     public PropertyDescriptor getPropertyByFieldReference(@NotNull Name fieldName) {
         checkMayRead();
@@ -500,8 +500,6 @@ public class WritableScopeImpl extends WritableScopeWithImports {
             throw new IllegalStateException();
         }
 
-        PropertyDescriptor descriptor = getPropertyDescriptorsByFieldNames().get(fieldName);
-        if (descriptor != null) return descriptor;
         return super.getPropertyByFieldReference(fieldName);
     }
 
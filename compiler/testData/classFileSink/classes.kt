@@ -0,0 +1,30 @@
+package test
+
+trait Named {
+    val name: String
+        get() = "named"
+}
+
+class Outer(val value: Int) : Named {
+    class Nested
+
+    inner class Inner {
+        fun value() = this@Outer.value
+    }
+
+    class object {
+        val DEFAULT = Outer(0)
+    }
+}
+
+object Singleton
+
+enum class Color {
+    RED
+    GREEN
+}
+
+fun test(): Int {
+    val literal = { (x: Int) -> x + 1 }
+    return literal(Outer.DEFAULT.value)
+}
@@ -0,0 +1,26 @@
+fun count(array: IntArray, predicate: (Int) -> Boolean): Int {
+    var result = 0
+    for (element in array) {
+        if (predicate(element)) result++
+    }
+    return result
+}
+
+fun half(x: Long, f: (Long) -> Double) = f(x)
+
+fun box(): String {
+    val array = IntArray(5)
+    for (i in 0..4) array[i] = i + 1
+
+    if (count(array, { it > 2 }) != 3) return "fail 1"
+
+    // Parameter type is boxed, called through invoke(Object)
+    val nullable: (Int?) -> Boolean = { it != null && it % 2 == 0 }
+    if (count(array, nullable) != 2) return "fail 2"
+
+    if (half(5.toLong(), { it / 2.0 }) != 2.5) return "fail 3"
+
+    val local = { (x: Int) -> x * 2 > 5 }
+    if (!local(3)) return "fail 4"
+    return "OK"
+}
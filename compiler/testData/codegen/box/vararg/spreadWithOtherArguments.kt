@@ -0,0 +1,29 @@
+fun ints(vararg x: Int): IntArray = x
+fun longs(vararg x: Long): LongArray = x
+fun strings(vararg x: String): Array<String> = x
+
+var log = ""
+
+fun logged(s: String): String {
+    log += s
+    return s
+}
+
+fun box(): String {
+    val a = ints(1, 2)
+    val i = ints(0, *a, 3, *a)
+    if (i.size != 6 || i[0] != 0 || i[1] != 1 || i[2] != 2 || i[3] != 3 || i[4] != 1 || i[5] != 2) return "Fail ints"
+    if (i === a) return "Fail: spread array is not copied"
+
+    val empty = ints()
+    if (ints(*empty, *empty).size != 0) return "Fail empty"
+
+    val l = longs(*longs(1.toLong(), 2.toLong()), 3.toLong())
+    if (l.size != 3 || l[0] != 1.toLong() || l[1] != 2.toLong() || l[2] != 3.toLong()) return "Fail longs"
+
+    val s = strings(logged("a"), *strings(logged("b"), logged("c")), logged("d"))
+    if (s.size != 4 || s[0] != "a" || s[1] != "b" || s[2] != "c" || s[3] != "d") return "Fail strings"
+    if (log != "abcd") return "Fail evaluation order: $log"
+
+    return "OK"
+}
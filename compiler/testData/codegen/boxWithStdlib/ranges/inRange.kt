@@ -0,0 +1,41 @@
+var log = ""
+
+fun range(): IntRange {
+    log += "range;"
+    return 1..2
+}
+
+fun element(): Int {
+    log += "element;"
+    return 1
+}
+
+fun box(): String {
+    val ints = 1..10
+    if (5 !in ints) return "Fail 5 in $ints"
+    if (0 in ints || 11 in ints) return "Fail 0 or 11 in $ints"
+
+    val longs = 1.toLong()..5000000000
+    if (3000000000 !in longs) return "Fail 3000000000 in $longs"
+    if (6000000000 in 0.toLong()..5000000000) return "Fail 6000000000 in literal range"
+    if (-1.toLong() in longs) return "Fail -1 in $longs"
+
+    val doubles = 0.0..1.0
+    if (0.5 !in doubles) return "Fail 0.5 in $doubles"
+    if (0.0 / 0.0 in doubles || 0.0 / 0.0 in 0.0..1.0) return "Fail NaN in $doubles"
+
+    val chars = 'a'..'z'
+    when ('q') {
+        in chars -> {}
+        else -> return "Fail q in $chars"
+    }
+    when (100) {
+        !in ints -> {}
+        else -> return "Fail 100 !in $ints"
+    }
+
+    if (element() !in range()) return "Fail element in range"
+    if (log != "range;element;") return "Fail evaluation order: $log"
+
+    return "OK"
+}
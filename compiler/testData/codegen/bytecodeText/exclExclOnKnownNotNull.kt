@@ -0,0 +1,12 @@
+fun notNullType(s: String) = s!!.hashCode()
+
+fun comparedWithNull(s: String?): Int {
+    if (s != null) {
+        return s!!.hashCode()
+    }
+    return 0
+}
+
+fun nullable(s: String?) = s!!.hashCode()
+
+// 1 throwNpe
@@ -0,0 +1,18 @@
+fun inRange(x: Int, range: IntRange) = x in range
+
+fun inRangeWhen(x: Long, range: LongRange) = when (x) {
+    in range -> true
+    else -> false
+}
+
+fun iterate(range: CharRange) {
+    for (c in range) {
+    }
+}
+
+// 0 contains
+// 0 getStart
+// 0 getEnd
+// 1 GETFIELD jet/IntRange.start
+// 1 GETFIELD jet/LongRange.end
+// 1 GETFIELD jet/CharRange.start
@@ -0,0 +1,17 @@
+class A {
+    private fun privateMember(s: String) = s
+
+    fun bar() = privateMember("")
+}
+
+// Compiled to a public method of the package class, accessible from Java
+private fun privateTopLevel(s: String) = s
+
+fun foo() {
+    fun local(s: String) = s
+    local("")
+
+    // invoke() of a function literal can be called from Java
+    val literal = { (s: String) -> s }
+    literal("")
+}
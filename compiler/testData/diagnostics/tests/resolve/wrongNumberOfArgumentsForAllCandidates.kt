@@ -0,0 +1,14 @@
+package a
+
+fun foo() = 0
+fun foo(a: Int, b: Int) = a + b
+fun foo(a: Int, b: Int, c: Int = 0) = a + b + c
+
+fun bar(a: Int) = a
+fun bar(a: String, b: String) = a + b
+
+fun test() {
+    <!NONE_APPLICABLE!>foo<!>(1)
+    <!NONE_APPLICABLE!>bar<!>()
+    <!NONE_APPLICABLE!>bar<!>(1, 2, 3)
+}
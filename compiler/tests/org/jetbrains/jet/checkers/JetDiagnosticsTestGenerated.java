@@ -4561,6 +4561,11 @@ public class JetDiagnosticsTestGenerated extends AbstractDiagnosticsTestWithEage
                 doTest("compiler/testData/diagnostics/tests/resolve/resolveWithoutGenerics.kt");
             }
             
+            @TestMetadata("wrongNumberOfArgumentsForAllCandidates.kt")
+            public void testWrongNumberOfArgumentsForAllCandidates() throws Exception {
+                doTest("compiler/testData/diagnostics/tests/resolve/wrongNumberOfArgumentsForAllCandidates.kt");
+            }
+            
             @TestMetadata("compiler/testData/diagnostics/tests/resolve/invoke")
             public static class Invoke extends AbstractDiagnosticsTestWithEagerResolve {
                 public void testAllFilesPresentInInvoke() throws Exception {
@@ -22,7 +22,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.jet.JetTestUtils;
 import org.jetbrains.jet.cli.common.CLICompiler;
 import org.jetbrains.jet.cli.common.ExitCode;
+import org.jetbrains.jet.cli.jvm.compiler.CompiledScriptCache;
 import org.jetbrains.jet.cli.jvm.compiler.KotlinToJVMBytecodeCompiler;
+import org.jetbrains.jet.cli.jvm.script.KotlinScriptEngineFactory;
 import org.jetbrains.jet.lang.parsing.JetScriptDefinition;
 import org.jetbrains.jet.lang.resolve.AnalyzerScriptParameter;
 import org.jetbrains.jet.lang.resolve.java.PackageClassUtils;
@@ -35,6 +37,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestName;
 
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
 import java.io.*;
 import java.util.Arrays;
 import java.util.LinkedList;
@@ -244,4 +248,70 @@ public class CliTest {
             throw new RuntimeException(e);
         }
     }
+
+    @Test
+    public void testScriptCache() {
+        LinkedList<AnalyzerScriptParameter> scriptParameters = new LinkedList<AnalyzerScriptParameter>();
+        AnalyzerScriptParameter parameter = new AnalyzerScriptParameter(Name.identifier("num"), JetTypeName.parse("jet.Int"));
+        scriptParameters.add(parameter);
+        CompiledScriptCache cache = new CompiledScriptCache(tmpdir.getTmpDir());
+
+        Class compiled = KotlinToJVMBytecodeCompiler
+                .compileScript(getClass().getClassLoader(), JetTestUtils.getPathsForTests(), "compiler/testData/cli/fib.ktscript", scriptParameters, null, cache);
+        Assert.assertNotNull(compiled);
+        Assert.assertEquals(1, tmpdir.getTmpDir().listFiles().length);
+
+        Class cached = KotlinToJVMBytecodeCompiler
+                .compileScript(getClass().getClassLoader(), JetTestUtils.getPathsForTests(), "compiler/testData/cli/fib.ktscript", scriptParameters, null, cache);
+        Assert.assertNotNull(cached);
+        Assert.assertNotSame(compiled, cached);
+        Assert.assertEquals(compiled.getName(), cached.getName());
+
+        try {
+            cached.getConstructor(int.class).newInstance(4);
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testScriptCacheEviction() {
+        LinkedList<AnalyzerScriptParameter> scriptParameters = new LinkedList<AnalyzerScriptParameter>();
+        AnalyzerScriptParameter parameter = new AnalyzerScriptParameter(Name.identifier("num"), JetTypeName.parse("jet.Int"));
+        scriptParameters.add(parameter);
+        // Only the script stored last fits into the cache
+        CompiledScriptCache cache = new CompiledScriptCache(tmpdir.getTmpDir(), 1);
+
+        Assert.assertNotNull(KotlinToJVMBytecodeCompiler
+                .compileScript(getClass().getClassLoader(), JetTestUtils.getPathsForTests(), "compiler/testData/cli/fib.ktscript", scriptParameters, null, cache));
+        Assert.assertEquals(1, tmpdir.getTmpDir().listFiles().length);
+
+        Assert.assertNotNull(KotlinToJVMBytecodeCompiler
+                .compileScript(getClass().getClassLoader(), JetTestUtils.getPathsForTests(), "compiler/testData/cli/fib.kt", scriptParameters, null, cache));
+        Assert.assertEquals(1, tmpdir.getTmpDir().listFiles().length);
+    }
+
+    @Test
+    public void testScriptEngine() throws Exception {
+        ScriptEngine engine = new KotlinScriptEngineFactory(JetTestUtils.getPathsForTests(), new CompiledScriptCache(tmpdir.getTmpDir()))
+                .getScriptEngine();
+        engine.put(ScriptEngine.ARGV, new String[] {"a", "b"});
+
+        Assert.assertEquals(42, engine.eval("val x = 40\nx + args.size"));
+        Assert.assertEquals(1, tmpdir.getTmpDir().listFiles().length);
+
+        // Loaded from the cache
+        Assert.assertEquals(42, engine.eval("val x = 40\nx + args.size"));
+        Assert.assertEquals(1, tmpdir.getTmpDir().listFiles().length);
+
+        Assert.assertEquals("ab", engine.eval(new StringReader("args[0] + args[1]")));
+    }
+
+    @Test
+    public void testScriptEngineIsRegistered() {
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("kotlin");
+        Assert.assertNotNull(engine);
+        Assert.assertTrue(engine.getFactory() instanceof KotlinScriptEngineFactory);
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.cli.jvm.compiler;
+
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.JetTestUtils;
+import org.jetbrains.jet.TestJdkKind;
+import org.jetbrains.jet.cli.common.CLIConfigurationKeys;
+import org.jetbrains.jet.cli.common.messages.MessageCollectorPlainTextToStream;
+import org.jetbrains.jet.codegen.ClassFileFactory;
+import org.jetbrains.jet.codegen.state.GenerationState;
+import org.jetbrains.jet.config.CommonConfigurationKeys;
+import org.jetbrains.jet.config.CompilerConfiguration;
+import org.jetbrains.jet.test.TestCaseWithTmpdir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/*
+ * Class files streamed to a directory or to a jar during generation must be the same as the ones
+ * kept in the ClassFileFactory when no sink is set.
+ */
+public class ClassFileSinkTest extends TestCaseWithTmpdir {
+    private static final String SOURCE = "compiler/testData/classFileSink/classes.kt";
+
+    public void testOutputDirectory() throws Exception {
+        Map<String, byte[]> expected = generateWithoutSink();
+
+        File outputDir = new File(tmpdir, "out");
+        assertTrue(KotlinToJVMBytecodeCompiler.compileBunchOfSources(createEnvironment(), null, outputDir, false));
+
+        assertSameClassFiles(expected, loadDirectory(outputDir));
+        // Nothing is staged or left next to the output directory
+        assertEquals(Collections.singletonList(outputDir), Arrays.asList(tmpdir.listFiles()));
+    }
+
+    public void testJar() throws Exception {
+        Map<String, byte[]> expected = generateWithoutSink();
+
+        File jar = new File(tmpdir, "out.jar");
+        assertTrue(KotlinToJVMBytecodeCompiler.compileBunchOfSources(createEnvironment(), jar, null, false));
+
+        assertSameClassFiles(expected, loadJar(jar));
+        assertEquals(Collections.singletonList(jar), Arrays.asList(tmpdir.listFiles()));
+    }
+
+    @NotNull
+    private Map<String, byte[]> generateWithoutSink() {
+        GenerationState state = KotlinToJVMBytecodeCompiler.analyzeAndGenerate(createEnvironment());
+        assertNotNull(state);
+        try {
+            ClassFileFactory factory = state.getFactory();
+            Map<String, byte[]> result = new TreeMap<String, byte[]>();
+            for (String file : factory.files()) {
+                result.put(file, factory.asBytes(file));
+            }
+            assertFalse(result.isEmpty());
+            return result;
+        }
+        finally {
+            state.destroy();
+        }
+    }
+
+    @NotNull
+    private JetCoreEnvironment createEnvironment() {
+        CompilerConfiguration configuration = JetTestUtils.compilerConfigurationForTests(ConfigurationKind.JDK_ONLY, TestJdkKind.MOCK_JDK);
+        configuration.add(CommonConfigurationKeys.SOURCE_ROOTS_KEY, SOURCE);
+        configuration.put(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY,
+                          new MessageCollectorPlainTextToStream(System.out, MessageCollectorPlainTextToStream.NON_VERBOSE));
+        return new JetCoreEnvironment(getTestRootDisposable(), configuration);
+    }
+
+    @NotNull
+    private static Map<String, byte[]> loadDirectory(@NotNull File outputDir) throws IOException {
+        Map<String, byte[]> result = new TreeMap<String, byte[]>();
+        collectFiles(outputDir, "", result);
+        return result;
+    }
+
+    private static void collectFiles(@NotNull File dir, @NotNull String prefix, @NotNull Map<String, byte[]> result) throws IOException {
+        File[] files = dir.listFiles();
+        assertNotNull(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collectFiles(file, prefix + file.getName() + "/", result);
+            }
+            else {
+                result.put(prefix + file.getName(), FileUtil.loadFileBytes(file));
+            }
+        }
+    }
+
+    @NotNull
+    private static Map<String, byte[]> loadJar(@NotNull File jar) throws IOException {
+        Map<String, byte[]> result = new TreeMap<String, byte[]>();
+        JarFile jarFile = new JarFile(jar);
+        try {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || entry.getName().startsWith("META-INF/")) continue;
+                result.put(entry.getName(), FileUtil.loadBytes(jarFile.getInputStream(entry)));
+            }
+        }
+        finally {
+            jarFile.close();
+        }
+        return result;
+    }
+
+    private static void assertSameClassFiles(@NotNull Map<String, byte[]> expected, @NotNull Map<String, byte[]> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            assertTrue("Different contents of " + entry.getKey(), Arrays.equals(entry.getValue(), actual.get(entry.getKey())));
+        }
+    }
+}
@@ -57,6 +57,16 @@ public class BytecodeTextTestGenerated extends AbstractBytecodeTextTest {
         doTest("compiler/testData/codegen/bytecodeText/componentEvaluatesOnlyOnce.kt");
     }
     
+    @TestMetadata("exclExclOnKnownNotNull.kt")
+    public void testExclExclOnKnownNotNull() throws Exception {
+        doTest("compiler/testData/codegen/bytecodeText/exclExclOnKnownNotNull.kt");
+    }
+    
+    @TestMetadata("inRangeInstance.kt")
+    public void testInRangeInstance() throws Exception {
+        doTest("compiler/testData/codegen/bytecodeText/inRangeInstance.kt");
+    }
+    
     @TestMetadata("intConstantNotNull.kt")
     public void testIntConstantNotNull() throws Exception {
         doTest("compiler/testData/codegen/bytecodeText/intConstantNotNull.kt");
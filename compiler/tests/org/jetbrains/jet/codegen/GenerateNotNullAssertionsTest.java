@@ -117,6 +117,15 @@ public class GenerateNotNullAssertionsTest extends CodegenTestCase {
         assertNoIntrinsicsMethodIsCalled("A");
     }
 
+    public void testNoParamAssertionForPrivateMethodsAndLocalFunctions() throws Exception {
+        setUpEnvironment(false, true);
+
+        loadFile("notNullAssertions/noAssertionForPrivateMethodsAndLocalFunctions.kt");
+
+        // Only for the top-level private function and the function literal
+        assertEquals(2, StringUtil.getOccurrenceCount(generateToText(), "checkParameterIsNotNull"));
+    }
+
     public void testArrayListGet() {
         setUpEnvironment(true, true);
 
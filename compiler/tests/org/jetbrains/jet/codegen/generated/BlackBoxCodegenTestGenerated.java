@@ -1194,6 +1194,11 @@ public class BlackBoxCodegenTestGenerated extends AbstractBlackBoxCodegenTest {
             doTest("compiler/testData/codegen/box/closures/localFunctionInInitializer.kt");
         }
         
+        @TestMetadata("primitiveFunctionInvoke.kt")
+        public void testPrimitiveFunctionInvoke() throws Exception {
+            doTest("compiler/testData/codegen/box/closures/primitiveFunctionInvoke.kt");
+        }
+        
         @TestMetadata("recursiveClosure.kt")
         public void testRecursiveClosure() throws Exception {
             doTest("compiler/testData/codegen/box/closures/recursiveClosure.kt");
@@ -4128,6 +4133,11 @@ public class BlackBoxCodegenTestGenerated extends AbstractBlackBoxCodegenTest {
             doTest("compiler/testData/codegen/box/vararg/kt796_797.kt");
         }
         
+        @TestMetadata("spreadWithOtherArguments.kt")
+        public void testSpreadWithOtherArguments() throws Exception {
+            doTest("compiler/testData/codegen/box/vararg/spreadWithOtherArguments.kt");
+        }
+        
         @TestMetadata("varargsAndFunctionLiterals.kt")
         public void testVarargsAndFunctionLiterals() throws Exception {
             doTest("compiler/testData/codegen/box/vararg/varargsAndFunctionLiterals.kt");
@@ -474,6 +474,11 @@ public class BlackBoxWithStdlibCodegenTestGenerated extends AbstractBlackBoxCode
             doTestWithStdlib("compiler/testData/codegen/boxWithStdlib/ranges/forByteProgressionWithIntIncrement.kt");
         }
         
+        @TestMetadata("inRange.kt")
+        public void testInRange() throws Exception {
+            doTestWithStdlib("compiler/testData/codegen/boxWithStdlib/ranges/inRange.kt");
+        }
+        
         @TestMetadata("multiAssignmentIterationOverIntRange.kt")
         public void testMultiAssignmentIterationOverIntRange() throws Exception {
             doTestWithStdlib("compiler/testData/codegen/boxWithStdlib/ranges/multiAssignmentIterationOverIntRange.kt");
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.lang.diagnostics;
+
+import com.google.common.collect.Lists;
+import org.jetbrains.jet.JetLiteFixture;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.config.CompilerConfiguration;
+import org.jetbrains.jet.lang.psi.JetFile;
+import org.jetbrains.jet.lang.psi.JetPsiFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class DiagnosticsByFileTest extends JetLiteFixture {
+    public void testReportOrderAndLookupByFile() {
+        JetFile first = JetPsiFactory.createFile(getProject(), "first.kt", "fun first() {}");
+        JetFile second = JetPsiFactory.createFile(getProject(), "second.kt", "fun second() {}");
+        JetFile third = JetPsiFactory.createFile(getProject(), "third.kt", "fun third() {}");
+
+        Diagnostic first1 = Errors.UNREACHABLE_CODE.on(first);
+        Diagnostic first2 = Errors.UNUSED_EXPRESSION.on(first);
+        Diagnostic second1 = Errors.UNREACHABLE_CODE.on(second);
+        Diagnostic first3 = Errors.UNREACHABLE_CODE.on(first);
+        Diagnostic second2 = Errors.UNUSED_EXPRESSION.on(second);
+        Diagnostic first4 = Errors.UNUSED_EXPRESSION.on(first);
+
+        DiagnosticsByFile diagnostics = new DiagnosticsByFile();
+        List<Diagnostic> reported = Arrays.asList(first1, first2, second1, first3, second2, first4);
+        for (Diagnostic diagnostic : reported) {
+            diagnostics.add(diagnostic);
+        }
+
+        assertEquals(reported, Lists.newArrayList(diagnostics));
+        assertEquals(reported.size(), diagnostics.size());
+
+        assertEquals(Arrays.asList(first1, first2, first3, first4), Lists.newArrayList(diagnostics.forFile(first)));
+        assertEquals(Arrays.asList(second1, second2), Lists.newArrayList(diagnostics.forFile(second)));
+        assertTrue(diagnostics.forFile(third).isEmpty());
+
+        assertEquals(Arrays.asList(second1, second2), Lists.newArrayList(DiagnosticsByFile.forFile(diagnostics, second)));
+        assertEquals(Arrays.asList(second1, second2), Lists.newArrayList(DiagnosticsByFile.forFile(reported, second)));
+
+        diagnostics.clear();
+        assertTrue(diagnostics.isEmpty());
+        assertTrue(diagnostics.forFile(first).isEmpty());
+
+        diagnostics.add(second1);
+        assertEquals(Collections.singletonList(second1), Lists.newArrayList(diagnostics));
+        assertEquals(Collections.singletonList(second1), Lists.newArrayList(diagnostics.forFile(second)));
+    }
+
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return new JetCoreEnvironment(getTestRootDisposable(), new CompilerConfiguration());
+    }
+}
@@ -67,6 +67,11 @@ public class LazyResolveFullTestGenerated extends AbstractLazyResolveTest {
         doTest("compiler/testData/resolve/imports/ImportConflictSameNameClass.resolve");
     }
     
+    @TestMetadata("ImportConflictWithClassMembers.resolve")
+    public void testImportConflictWithClassMembers() throws Exception {
+        doTest("compiler/testData/resolve/imports/ImportConflictWithClassMembers.resolve");
+    }
+    
     @TestMetadata("ImportConflictWithClassObject.resolve")
     public void testImportConflictWithClassObject() throws Exception {
         doTest("compiler/testData/resolve/imports/ImportConflictWithClassObject.resolve");
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.parsing;
+
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import org.jetbrains.jet.JetLiteFixture;
+import org.jetbrains.jet.JetNodeTypes;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.config.CompilerConfiguration;
+import org.jetbrains.jet.lang.psi.*;
+
+/*
+ * Bodies of functions and property accessors are parsed lazily, anonymous initializers are parsed right away.
+ * The same block text must give the same tree both ways.
+ */
+public class JetLazyBlockParsingTest extends JetLiteFixture {
+    public void testSimpleBody() {
+        doFunctionTest("{\n    val x = 1\n    return x\n}");
+    }
+
+    public void testEmptyBody() {
+        doFunctionTest("{}");
+    }
+
+    public void testNestedBlocksAndFunctionLiterals() {
+        doFunctionTest("{\n    if (a) { b() } else { c { x -> x } }\n    when (d) {\n        1 -> { e() }\n        else -> {}\n    }\n}");
+    }
+
+    public void testBracesInStringsAndComments() {
+        doFunctionTest("{\n    // }\n    /* { */\n    val s = \"}${ a { b } }{\"\n    return '}'\n}");
+    }
+
+    public void testAccessorBodies() {
+        JetFile file = createFile("var x: Int = 0\n    get() { return $x }\n    set(value) { $x = value }");
+        JetProperty property = (JetProperty) file.getDeclarations().get(0);
+
+        JetPropertyAccessor getter = property.getGetter();
+        assertNotNull(getter);
+        assertLazyBlockEqualsEagerBlock(getter.getBodyExpression(), "{ return $x }");
+
+        JetPropertyAccessor setter = property.getSetter();
+        assertNotNull(setter);
+        assertLazyBlockEqualsEagerBlock(setter.getBodyExpression(), "{ $x = value }");
+    }
+
+    public void testUnbalancedBracesParsedEagerly() {
+        String body = "{\n    if (a) { b() }\n";
+        JetFile file = createFile("fun foo() " + body);
+        JetExpression functionBody = ((JetNamedFunction) file.getDeclarations().get(0)).getBodyExpression();
+        assertNotNull(functionBody);
+        assertFalse("Block with unbalanced braces should be parsed right away", functionBody.getNode() instanceof LazyParseableElement);
+
+        JetFile eagerFile = createFile("class A {\n" + body);
+        JetExpression initializerBody = ((JetClass) eagerFile.getDeclarations().get(0)).getAnonymousInitializers().get(0).getBody();
+        assertEquals(DebugUtil.psiToString(initializerBody, false), DebugUtil.psiToString(functionBody, false));
+    }
+
+    private void doFunctionTest(String body) {
+        JetFile file = createFile("fun foo() " + body);
+        assertLazyBlockEqualsEagerBlock(((JetNamedFunction) file.getDeclarations().get(0)).getBodyExpression(), body);
+    }
+
+    private void assertLazyBlockEqualsEagerBlock(JetExpression lazyBlock, String body) {
+        assertNotNull(lazyBlock);
+        assertEquals(JetNodeTypes.BLOCK, lazyBlock.getNode().getElementType());
+        assertTrue("Body block should be parsed lazily", lazyBlock.getNode() instanceof LazyParseableElement);
+
+        JetFile eagerFile = createFile("class A {\n" + body + "\n}");
+        JetExpression eagerBlock = ((JetClass) eagerFile.getDeclarations().get(0)).getAnonymousInitializers().get(0).getBody();
+        assertEquals(DebugUtil.psiToString(eagerBlock, false), DebugUtil.psiToString(lazyBlock, false));
+    }
+
+    private JetFile createFile(String text) {
+        return JetPsiFactory.createFile(getProject(), text);
+    }
+
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return new JetCoreEnvironment(getTestRootDisposable(), new CompilerConfiguration());
+    }
+}
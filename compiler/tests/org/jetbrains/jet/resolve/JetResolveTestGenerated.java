@@ -163,6 +163,11 @@ public class JetResolveTestGenerated extends AbstractResolveTest {
             JetTestUtils.assertAllTestsPresentByMetadata(this.getClass(), "org.jetbrains.jet.generators.tests.GenerateTests", new File("compiler/testData/resolve/candidatesPriority"), Pattern.compile("^(.+)\\.resolve$"), true);
         }
         
+        @TestMetadata("applicableAmongPrunedCandidates.resolve")
+        public void testApplicableAmongPrunedCandidates() throws Exception {
+            doTest("compiler/testData/resolve/candidatesPriority/applicableAmongPrunedCandidates.resolve");
+        }
+        
         @TestMetadata("classObjectOuterResolve.resolve")
         public void testClassObjectOuterResolve() throws Exception {
             doTest("compiler/testData/resolve/candidatesPriority/classObjectOuterResolve.resolve");
@@ -329,6 +334,11 @@ public class JetResolveTestGenerated extends AbstractResolveTest {
             doTest("compiler/testData/resolve/imports/ImportConflictSameNameClass.resolve");
         }
         
+        @TestMetadata("ImportConflictWithClassMembers.resolve")
+        public void testImportConflictWithClassMembers() throws Exception {
+            doTest("compiler/testData/resolve/imports/ImportConflictWithClassMembers.resolve");
+        }
+        
         @TestMetadata("ImportConflictWithClassObject.resolve")
         public void testImportConflictWithClassObject() throws Exception {
             doTest("compiler/testData/resolve/imports/ImportConflictWithClassObject.resolve");
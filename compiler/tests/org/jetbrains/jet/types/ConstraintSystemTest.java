@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.types;
+
+import com.google.common.collect.Sets;
+import org.jetbrains.jet.ConfigurationKind;
+import org.jetbrains.jet.cli.jvm.compiler.JetCoreEnvironment;
+import org.jetbrains.jet.lang.descriptors.TypeParameterDescriptor;
+import org.jetbrains.jet.lang.descriptors.annotations.AnnotationDescriptor;
+import org.jetbrains.jet.lang.descriptors.impl.TypeParameterDescriptorImpl;
+import org.jetbrains.jet.lang.resolve.calls.inference.*;
+import org.jetbrains.jet.lang.resolve.lazy.KotlinTestWithEnvironment;
+import org.jetbrains.jet.lang.resolve.name.Name;
+import org.jetbrains.jet.lang.types.JetType;
+import org.jetbrains.jet.lang.types.Variance;
+import org.jetbrains.jet.lang.types.lang.KotlinBuiltIns;
+
+import java.util.Collections;
+
+public class ConstraintSystemTest extends KotlinTestWithEnvironment {
+    @Override
+    protected JetCoreEnvironment createEnvironment() {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_ONLY);
+    }
+
+    public void testCopyIsIndependentOfOriginal() throws Exception {
+        KotlinBuiltIns builtIns = KotlinBuiltIns.getInstance();
+        JetType intType = builtIns.getIntType();
+        JetType stringType = builtIns.getStringType();
+        JetType numberType = builtIns.getNumber().getDefaultType();
+
+        TypeParameterDescriptor typeVariable = TypeParameterDescriptorImpl.createWithDefaultBound(
+                builtIns.getBuiltInsPackage(), Collections.<AnnotationDescriptor>emptyList(), false, Variance.INVARIANT,
+                Name.identifier("T"), 0);
+        JetType variableType = typeVariable.getDefaultType();
+
+        ConstraintSystemImpl original = new ConstraintSystemImpl();
+        original.registerTypeVariable(typeVariable, Variance.INVARIANT);
+        original.addSubtypeConstraint(intType, variableType, ConstraintPosition.getValueParameterPosition(0));
+        // The value is computed and remembered before copying
+        assertEquals(intType, ConstraintsUtil.getValue(original.getTypeConstraints(typeVariable)));
+
+        ConstraintSystem copy = original.copy();
+        TypeConstraints copyConstraints = copy.getTypeConstraints(typeVariable);
+        assertNotNull(copyConstraints);
+        assertEquals(Collections.singleton(intType), copyConstraints.getLowerBounds());
+        assertEquals(intType, ConstraintsUtil.getValue(copyConstraints));
+
+        original.addSubtypeConstraint(stringType, variableType, ConstraintPosition.getValueParameterPosition(1));
+        copy.addSupertypeConstraint(numberType, variableType, ConstraintPosition.getValueParameterPosition(1));
+
+        TypeConstraints originalConstraints = original.getTypeConstraints(typeVariable);
+        assertNotNull(originalConstraints);
+        assertEquals(Sets.newHashSet(intType, stringType), originalConstraints.getLowerBounds());
+        assertTrue(originalConstraints.getUpperBounds().isEmpty());
+        assertFalse(intType.equals(ConstraintsUtil.getValue(originalConstraints)));
+
+        assertEquals(Collections.singleton(intType), copyConstraints.getLowerBounds());
+        assertEquals(Collections.singleton(numberType), copyConstraints.getUpperBounds());
+        assertEquals(intType, ConstraintsUtil.getValue(copyConstraints));
+        assertTrue(copy.isSuccessful());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.generators.runtime;
+
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.jet.utils.ExceptionUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Generates interfaces with unboxed invoke() for closures of one parameter, see FunctionTypesUtil.getPrimitiveFunctionInterface()
+ */
+public class GeneratePrimitiveFunctions {
+    public static final File RUNTIME_SRC_DIR = new File("runtime/src/jet/runtime/functions/");
+
+    // Must be kept in sync with FunctionTypesUtil
+    private static final String[][] PARAMETER_TYPES = {{"Int", "int"}, {"Long", "long"}, {"Double", "double"}};
+    private static final String[][] RETURN_TYPES = {{"Boolean", "boolean"}, {"Int", "int"}, {"Long", "long"}, {"Double", "double"}};
+
+    private final PrintWriter out;
+
+    private GeneratePrimitiveFunctions(PrintWriter out) {
+        this.out = out;
+    }
+
+    private void generateInterface(String[] parameterType, String[] returnType) {
+        try {
+            out.println(FileUtil.loadFile(new File("injector-generator/copyright.txt")));
+        }
+        catch (IOException e) {
+            ExceptionUtils.rethrow(e);
+        }
+        out.println("package jet.runtime.functions;");
+        out.println();
+        out.println("public interface " + getClassName(parameterType, returnType) + " {");
+        out.println("    " + returnType[1] + " invoke(" + parameterType[1] + " p1);");
+        out.println("}");
+    }
+
+    private static String getClassName(String[] parameterType, String[] returnType) {
+        return parameterType[0] + "To" + returnType[0] + "Function";
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        assert RUNTIME_SRC_DIR.exists() : "Runtime src dir does not exist: " + RUNTIME_SRC_DIR.getAbsolutePath();
+
+        for (String[] parameterType : PARAMETER_TYPES) {
+            for (String[] returnType : RETURN_TYPES) {
+                PrintWriter out = new PrintWriter(new File(RUNTIME_SRC_DIR, getClassName(parameterType, returnType) + ".java"));
+                new GeneratePrimitiveFunctions(out).generateInterface(parameterType, returnType);
+                out.close();
+            }
+        }
+    }
+}
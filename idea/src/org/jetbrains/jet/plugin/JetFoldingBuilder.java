@@ -64,7 +64,7 @@ public class JetFoldingBuilder extends FoldingBuilderEx implements DumbAware {
     private static void appendDescriptors(ASTNode node, Document document, List<FoldingDescriptor> descriptors) {
         TextRange textRange = node.getTextRange();
         IElementType type = node.getElementType();
-        if ((type == JetNodeTypes.BLOCK || type == JetNodeTypes.CLASS_BODY || type == JetTokens.BLOCK_COMMENT || type == KDocTokens.KDOC) &&
+        if ((type == JetNodeTypes.BLOCK || type == JetNodeTypes.BLOCK_WITHOUT_BRACES || type == JetNodeTypes.CLASS_BODY || type == JetTokens.BLOCK_COMMENT || type == KDocTokens.KDOC) &&
                 !isOneLine(textRange, document)) {
             descriptors.add(new FoldingDescriptor(node, textRange));
         }
@@ -52,6 +52,7 @@ public class JetBlock extends AbstractBlock {
 
     private static final TokenSet CODE_BLOCKS = TokenSet.create(
             BLOCK,
+            BLOCK_WITHOUT_BRACES,
             CLASS_BODY,
             FUNCTION_LITERAL);
 
@@ -152,13 +153,13 @@ public class JetBlock extends AbstractBlock {
         JetCodeStyleSettings jetSettings = mySettings.getCustomSettings(JetCodeStyleSettings.class);
         int spacesInSimpleMethod = jetSettings.INSERT_WHITESPACES_IN_SIMPLE_ONE_LINE_METHOD ? 1 : 0;
 
-        if (parentType == FUNCTION_LITERAL && child1Type == LBRACE && child2Type == BLOCK) {
+        if (parentType == FUNCTION_LITERAL && child1Type == LBRACE && child2Type == BLOCK_WITHOUT_BRACES) {
             return Spacing.createDependentLFSpacing(
                     spacesInSimpleMethod, spacesInSimpleMethod, this.getTextRange(),
                     mySettings.KEEP_LINE_BREAKS, mySettings.KEEP_BLANK_LINES_IN_CODE);
         }
 
-        if (parentType == FUNCTION_LITERAL && child1Type == ARROW && child2Type == BLOCK) {
+        if (parentType == FUNCTION_LITERAL && child1Type == ARROW && child2Type == BLOCK_WITHOUT_BRACES) {
             return Spacing.createDependentLFSpacing(1, 1, this.getTextRange(), mySettings.KEEP_LINE_BREAKS, mySettings.KEEP_BLANK_LINES_IN_CODE);
         }
 
@@ -297,13 +298,13 @@ public class JetBlock extends AbstractBlock {
 
     static ASTIndentStrategy[] INDENT_RULES = new ASTIndentStrategy[] {
             ASTIndentStrategy.forNode("No indent for braces in blocks")
-                    .in(BLOCK, CLASS_BODY, FUNCTION_LITERAL)
+                    .in(BLOCK, BLOCK_WITHOUT_BRACES, CLASS_BODY, FUNCTION_LITERAL)
                     .forType(RBRACE, LBRACE)
                     .set(Indent.getNoneIndent()),
 
             ASTIndentStrategy.forNode("Indent for block content")
-                    .in(BLOCK, CLASS_BODY, FUNCTION_LITERAL)
-                    .notForType(RBRACE, LBRACE, BLOCK)
+                    .in(BLOCK, BLOCK_WITHOUT_BRACES, CLASS_BODY, FUNCTION_LITERAL)
+                    .notForType(RBRACE, LBRACE, BLOCK, BLOCK_WITHOUT_BRACES)
                     .set(Indent.getNormalIndent()),
 
             ASTIndentStrategy.forNode("Indent for property accessors")
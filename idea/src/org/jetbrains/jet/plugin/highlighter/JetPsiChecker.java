@@ -35,6 +35,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.jet.lang.diagnostics.Diagnostic;
+import org.jetbrains.jet.lang.diagnostics.DiagnosticsByFile;
 import org.jetbrains.jet.lang.diagnostics.Errors;
 import org.jetbrains.jet.lang.diagnostics.Severity;
 import org.jetbrains.jet.lang.diagnostics.rendering.DefaultErrorMessages;
@@ -115,12 +116,10 @@ public class JetPsiChecker implements Annotator {
                 BindingContext bindingContext = WholeProjectAnalyzerFacade.analyzeProjectWithCacheOnAFile(file).getBindingContext();
 
                 if (errorReportingEnabled) {
-                    Collection<Diagnostic> diagnostics = Sets.newLinkedHashSet(bindingContext.getDiagnostics());
+                    // We have the same context for all files
+                    Collection<Diagnostic> diagnostics = Sets.newLinkedHashSet(DiagnosticsByFile.forFile(bindingContext.getDiagnostics(), file));
                     Set<PsiElement> redeclarations = Sets.newHashSet();
                     for (Diagnostic diagnostic : diagnostics) {
-                        // This is needed because we have the same context for all files
-                        if (diagnostic.getPsiFile() != file) continue;
-
                         registerDiagnosticAnnotations(diagnostic, redeclarations, holder);
                     }
                 }
@@ -212,6 +212,12 @@ public class ResolveToolwindow extends JPanel implements Disposable {
                 }
             }
 
+            Integer examined = debugInfo.get(CANDIDATES_EXAMINED);
+            Integer pruned = debugInfo.get(CANDIDATES_PRUNED);
+            if (examined != null) {
+                result.append("Candidates examined: ").append(examined).append(", pruned by arity: ").append(pruned).append("\n");
+            }
+
             call = debugInfo.get(RESULT);
         }
 
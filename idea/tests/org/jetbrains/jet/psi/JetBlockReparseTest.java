@@ -0,0 +1,75 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.jet.psi;
+
+import com.intellij.openapi.application.Result;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.testFramework.LightCodeInsightTestCase;
+import org.jetbrains.jet.plugin.JetFileType;
+
+public class JetBlockReparseTest extends LightCodeInsightTestCase {
+    public void testStatementInControlStructureBlock() throws Exception {
+        doTest("fun foo(c: Boolean) {\n    if (c) { <caret>foo }\n}", "bar(); ");
+    }
+
+    public void testParametersInControlStructureBlock() throws Exception {
+        doTest("fun foo(c: Boolean) {\n    if (c) { <caret>foo }\n}", "a -> ");
+    }
+
+    public void testSeveralParametersInControlStructureBlock() throws Exception {
+        doTest("fun foo(c: Boolean) {\n    while (c) { <caret>foo }\n}", "a, b -> ");
+    }
+
+    public void testParenthesizedParametersInControlStructureBlock() throws Exception {
+        doTest("fun foo(c: Boolean) {\n    if (c) { <caret>foo } else { bar }\n}", "(a: Int) -> ");
+    }
+
+    public void testStatementInFunctionBody() throws Exception {
+        doTest("fun foo() {\n    <caret>foo\n}", "bar()\n    ");
+    }
+
+    public void testParametersInFunctionBody() throws Exception {
+        doTest("fun foo() { <caret>foo }", "a -> ");
+    }
+
+    public void testParametersInFunctionLiteral() throws Exception {
+        doTest("fun foo() {\n    bar { <caret>foo }\n}", "a -> ");
+    }
+
+    // The text is edited in place, the tree after the commit must be the same as the tree of a freshly parsed file
+    private void doTest(String text, final String textToInsert) throws Exception {
+        configureFromFileText("a.kt", text);
+
+        final Document document = getEditor().getDocument();
+        final int offset = getEditor().getCaretModel().getOffset();
+        new WriteCommandAction(getProject()) {
+            @Override
+            protected void run(Result result) throws Throwable {
+                document.insertString(offset, textToInsert);
+            }
+        }.execute();
+        PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+
+        PsiFile fullyParsed = PsiFileFactory.getInstance(getProject()).createFileFromText("a.kt", JetFileType.INSTANCE, document.getText());
+        assertEquals(DebugUtil.psiToString(fullyParsed, false), DebugUtil.psiToString(getFile(), false));
+    }
+}
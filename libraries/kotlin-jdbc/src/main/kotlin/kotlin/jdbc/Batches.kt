@@ -0,0 +1,155 @@
+package kotlin.jdbc
+
+import java.sql.*
+import java.util.HashMap
+import kotlin.template.StringTemplate
+
+/**
+ * The number of updates sent to the database in one round trip by [[Batch]] unless specified otherwise
+ */
+public val defaultBatchSize : Int = 1000
+
+/**
+ * Keeps the [[PreparedStatement]]s of a connection by their SQL text, so that the statements for
+ * the same [[StringTemplate]] are prepared only once. The statements are closed by [[close]]
+ */
+public class StatementCache(val connection : Connection) {
+    private val statements = HashMap<String, PreparedStatement>()
+
+    /**
+     * Returns the statement for the given SQL, preparing it on the first request
+     */
+    public fun get(sql : String) : PreparedStatement {
+        val cached = statements[sql]
+        if (cached != null) {
+            return cached
+        }
+        val statement = connection.prepareStatement(sql)
+        if (statement == null) {
+            throw IllegalStateException("No PreparedStatement returned from $connection")
+        }
+        statements[sql] = statement
+        return statement
+    }
+
+    /**
+     * Performs the SQL update using the [[StringTemplate]] with a cached statement
+     */
+    public fun update(template : StringTemplate) : Int {
+        return connection.prepare(template, this).executeUpdate()
+    }
+
+    /**
+     * Performs a query using the [[StringTemplate]] with a cached statement and processes the result set with a function.
+     * The fetch size is set on every query, 0 leaves the number of fetched rows to the driver
+     */
+    public fun <T> query(template : StringTemplate, fetchSize : Int = 0, resultBlock : (ResultSet) -> T) : T {
+        val statement = connection.prepare(template, this)
+        // The statement is shared, so the fetch size of an earlier query must not stay on it
+        statement.setFetchSize(fetchSize)
+        val resultSet = statement.executeQuery()
+        if (resultSet == null) {
+            throw IllegalStateException("No ResultSet returned from $statement")
+        }
+        return resultSet.use(resultBlock)
+    }
+
+    /**
+     * Closes all the cached statements
+     */
+    public fun close() {
+        var failure : SQLException? = null
+        for (statement in statements.values()) {
+            try {
+                statement.close()
+            } catch (e : SQLException) {
+                if (failure == null) failure = e
+            }
+        }
+        statements.clear()
+        if (failure != null) {
+            throw failure!!
+        }
+    }
+}
+
+/**
+ * Executes the specified block with a [[StatementCache]] for this connection and closes the cached statements after this
+ */
+fun <T> Connection.useStatementCache(block : (StatementCache) -> T) : T {
+    val cache = StatementCache(this)
+    try {
+        return block(cache)
+    } finally {
+        cache.close()
+    }
+}
+
+/**
+ * Collects updates and sends them to the database with [[PreparedStatement.executeBatch]].
+ *
+ * Consecutive updates with the same SQL text are added to one statement and executed once there are [[batchSize]]
+ * of them, an update with a different text executes the pending ones first to keep the order of the updates.
+ */
+public class Batch(val connection : Connection, val batchSize : Int = defaultBatchSize, val cache : StatementCache = StatementCache(connection)) {
+    {
+        require(batchSize > 0, "Batch size must be positive: $batchSize")
+    }
+
+    private var pending : PreparedStatement? = null
+    private var pendingCount = 0
+
+    /**
+     * The total number of rows changed by the executed updates, as far as the driver reports them
+     */
+    public var updateCount : Int = 0
+        private set
+
+    /**
+     * Adds the update using the [[StringTemplate]] to the batch
+     */
+    public fun add(template : StringTemplate) : Batch {
+        val builder = PreparedStatementBuilder(template, connection, cache)
+        val statement = builder.statement
+        if (statement !== pending) {
+            flush()
+            pending = statement
+        }
+        builder.bind()
+        statement.addBatch()
+        pendingCount++
+        if (pendingCount >= batchSize) {
+            flush()
+        }
+        return this
+    }
+
+    /**
+     * Executes the pending updates
+     */
+    public fun flush() {
+        val statement = pending
+        if (statement == null || pendingCount == 0) {
+            return
+        }
+        pendingCount = 0
+        for (count in statement.executeBatch()!!) {
+            if (count > 0) {
+                updateCount += count
+            }
+        }
+    }
+}
+
+/**
+ * Executes the updates added to the [[Batch]] by the given block in batches of the given size, then closes the statements.
+ * The updates which are pending when the block completes are executed before returning
+ */
+fun <T> Connection.batch(batchSize : Int = defaultBatchSize, block : (Batch) -> T) : T {
+    return useStatementCache{
+        val batch = Batch(this, batchSize, it)
+        val answer = block(batch)
+        batch.flush()
+        answer
+    }
+}
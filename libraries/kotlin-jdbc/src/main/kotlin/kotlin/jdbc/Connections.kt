@@ -61,9 +61,11 @@ fun Connection.update(template : StringTemplate) : Int {
 
 /**
  * Perform a query on the connection and processes the result set with a function
+ * @param fetchSize the number of rows the driver fetches in one round trip, the driver default is used if it is 0
  */
-fun <T> Connection.query(sql: String, block: (ResultSet) -> T): T {
+fun <T> Connection.query(sql: String, fetchSize: Int = 0, block: (ResultSet) -> T): T {
     return statement{
+        it.withFetchSize(fetchSize)
         val rs = it.executeQuery(sql)
         block(rs)
     }
@@ -75,21 +77,23 @@ fun <T> Connection.query(sql: String, block: (ResultSet) -> T): T {
  * Perform a query on the connection using the [[StringTemplate]] to generate the SQL text
  * and processes the result set with a function
  */
-fun <T> Connection.query(template : StringTemplate, resultBlock : (ResultSet) -> T) : T {
+fun <T> Connection.query(template : StringTemplate, fetchSize : Int = 0, resultBlock : (ResultSet) -> T) : T {
     val preparedStatement = prepare(template)
+    preparedStatement.withFetchSize(fetchSize)
     return preparedStatement.query(resultBlock)
 }
 
 /**
  * Creates a [[PreparedStatement]] from the [[StringTemplate]]
+ * @param cache if specified the statement is taken from the cache and must not be closed by the caller
  */
-fun Connection.prepare(template : StringTemplate) : PreparedStatement {
-    val builder = PreparedStatementBuilder(template, this)
+fun Connection.prepare(template : StringTemplate, cache : StatementCache? = null) : PreparedStatement {
+    val builder = PreparedStatementBuilder(template, this, cache)
     builder.bind()
     return builder.statement
 }
 
-class PreparedStatementBuilder(val template : StringTemplate, val connection : Connection) {
+class PreparedStatementBuilder(val template : StringTemplate, val connection : Connection, val cache : StatementCache? = null) {
     private var parameterIndex = 0
 
     public val sql : String = createSql()
@@ -201,6 +205,10 @@ class PreparedStatementBuilder(val template : StringTemplate, val connection : C
      * Looks up the [[PreparedStatement]] in a cache or creates a new one
      */
     protected fun lookupOrCreateStatement(): PreparedStatement {
+        val statementCache = cache
+        if (statementCache != null) {
+            return statementCache.get(sql)
+        }
         val answer = connection.prepareStatement(sql)
         if (answer == null) {
             throw IllegalStateException("No PreparedStatement returned from $connection")
@@ -37,8 +37,8 @@ fun DataSource.update(sql: String): Int {
 /**
  * Perform a query on the connection and processes the result set with a function
  */
-fun <T> DataSource.query(sql: String, block: (ResultSet) -> T): T {
-    return useDataSource{ it.query(sql, block) }
+fun <T> DataSource.query(sql: String, fetchSize: Int = 0, block: (ResultSet) -> T): T {
+    return useDataSource{ it.query(sql, fetchSize, block) }
 }
 
 /**
@@ -51,6 +51,13 @@ fun DataSource.update(template : StringTemplate) : Int {
 /**
  * Perform a query on the connection using the SQL from the [[StringTemplate]] and processes the result set with a function
  */
-fun <T> DataSource.query(template : StringTemplate, resultBlock : (ResultSet) -> T) : T {
-    return useDataSource{ it.query(template, resultBlock) }
+fun <T> DataSource.query(template : StringTemplate, fetchSize : Int = 0, resultBlock : (ResultSet) -> T) : T {
+    return useDataSource{ it.query(template, fetchSize, resultBlock) }
+}
+
+/**
+ * Executes the updates added to the [[Batch]] by the given block in batches of the given size on a connection from the pool
+ */
+fun <T> DataSource.batch(batchSize : Int = defaultBatchSize, block : (Batch) -> T) : T {
+    return useDataSource{ it.batch(batchSize, block) }
 }
@@ -43,6 +43,22 @@ fun <T> ResultSet.map(fn : (ResultSet) -> T) : jet.Iterable<T> {
     }
 }
 
+/**
+ * Calls the mapper function for each row and adds the results to the given collection.
+ * The mapper should read the columns with the typed getters like [[ResultSet.getInt]], so that no values are boxed
+ */
+fun <T, C : MutableCollection<in T>> ResultSet.mapTo(result : C, fn : (ResultSet) -> T) : C {
+    while (next()) {
+        result.add(fn(this))
+    }
+    return result
+}
+
+/**
+ * Returns a list of the results of the mapper function called for each row
+ */
+fun <T> ResultSet.mapToList(fn : (ResultSet) -> T) : List<T> = mapTo(ArrayList<T>(), fn)
+
 /**
  * Returns array with column names
  */
@@ -61,6 +77,17 @@ fun ResultSet.getValues(columnNames : jet.Array<String> = getColumnNames()) : je
     })
 }
 
+/**
+ * Fills the given array with values from current row in the cursor, starting at the first column, and returns it.
+ * Unlike [[getValues]] the columns are read by index and the array may be reused for all the rows
+ */
+fun ResultSet.getValuesTo(values : jet.Array<Any?>) : jet.Array<Any?> {
+    for (i in values.indices) {
+        values[i] = getObject(i + 1)
+    }
+    return values
+}
+
 /**
  * Return map filled with values from current row in the cursor. Uses column names as keys for result map.
  * @param columnNames you can specify column names to extract otherwise all columns will be extracted
@@ -15,3 +15,16 @@ fun <T, S : Statement> S.useSql(block : (S) -> T) : T { // TODO rename to "use"
         close()
     }
 }
+
+/**
+ * Sets the fetch size of the statement unless it is 0 which means the driver default
+ */
+fun <S : Statement> S.withFetchSize(fetchSize : Int) : S {
+    if (fetchSize < 0) {
+        throw IllegalArgumentException("Fetch size must not be negative: $fetchSize")
+    }
+    if (fetchSize > 0) {
+        setFetchSize(fetchSize)
+    }
+    return this
+}
@@ -0,0 +1,98 @@
+package test.kotlin.jdbc
+
+import kotlin.jdbc.*
+import kotlin.template.*
+import kotlin.test.*
+import org.junit.Test as test
+
+class BatchTest {
+    test fun batchInsert() {
+        dataSource.update("create table batch_insert (id int primary key, name varchar(100))")
+
+        val updated = dataSource.batch(7) {
+            for (id in 1..100) {
+                it.add(StringTemplate(array("insert into batch_insert (id, name) values (", id, ", ", "name$id", ")")))
+            }
+            it.updateCount
+        }
+        // The last two updates are executed after the block
+        assertEquals(98, updated)
+
+        dataSource.query("select count(*) from batch_insert") {
+            assertEquals(100, it.singleInt())
+        }
+        val names = dataSource.query("select id, name from batch_insert order by id", 10) {
+            it.mapToList { "${it.getInt(1)}:${it.getString(2)}" }
+        }
+        assertEquals((1..100).map { "$it:name$it" }, names)
+    }
+
+    test fun batchKeepsOrderOfDifferentTemplates() {
+        dataSource.update("create table batch_order (id int primary key, name varchar(100))")
+
+        dataSource.useDataSource {
+            val batch = Batch(it, 10, StatementCache(it))
+            for (id in 1..5) {
+                batch.add(StringTemplate(array("insert into batch_order (id, name) values (", id, ", ", "old", ")")))
+                batch.add(StringTemplate(array("update batch_order set name = ", "new$id", " where id = ", id)))
+            }
+            batch.flush()
+            batch.cache.close()
+            assertEquals(10, batch.updateCount)
+        }
+
+        val names = dataSource.query("select name from batch_order order by id") {
+            it.mapToList { it.getString(1) }
+        }
+        assertEquals(arrayList("new1", "new2", "new3", "new4", "new5"), names)
+    }
+
+    test fun statementCache() {
+        dataSource.useDataSource {
+            it.useStatementCache { (cache : StatementCache) ->
+                val first = cache.get("select name from foo where id = ?")
+                assertTrue(first === cache.get("select name from foo where id = ?"))
+
+                for (id in 1..2) {
+                    val name = cache.query(StringTemplate(array("select name from foo where id = ", id))) {
+                        it.mapToList { it.getString(1) }.first()
+                    }
+                    assertEquals(if (id == 1) "James" else "Andrey", name)
+                }
+            }
+        }
+    }
+
+    test fun statementCacheResetsFetchSize() {
+        dataSource.useDataSource {
+            it.useStatementCache { (cache : StatementCache) ->
+                val template = StringTemplate(array("select name from foo where id = ", 1))
+                val statement = cache.get("select name from foo where id = ?")
+                val defaultFetchSize = statement.getFetchSize()
+
+                cache.query(template, defaultFetchSize + 10) { it.next() }
+                assertEquals(defaultFetchSize + 10, statement.getFetchSize())
+
+                cache.query(template) { it.next() }
+                assertEquals(defaultFetchSize, statement.getFetchSize())
+            }
+        }
+    }
+
+    test fun batchSizeMustBePositive() {
+        dataSource.useDataSource {
+            fails { Batch(it, 0) }
+        }
+    }
+
+    test fun getValuesTo() {
+        dataSource.query("select id, name from foo where id = 1") {
+            val values = arrayOfNulls<Any>(2)
+            for (row in it) {
+                row.getValuesTo(values)
+                assertEquals(1, values[0])
+                assertEquals("James", values[1])
+            }
+        }
+    }
+}
@@ -11,7 +11,7 @@ import java.util.*
  * Returns an iterator over elements which match the given *predicate*
  */
 public inline fun <T> Iterator<T>.filter(predicate: (T) -> Boolean) : Iterator<T> {
-    return FilterIterator<T>(this, predicate)
+    return filterPipeline(this, predicate)
 }
 
 /**
@@ -25,14 +25,14 @@ public inline fun <T> Iterator<T>.filterNot(predicate: (T) -> Boolean) : Iterato
  * Returns an iterator over non-*null* elements
  */
 public inline fun <T:Any> Iterator<T?>.filterNotNull() : Iterator<T> {
-    return FilterNotNullIterator(this)
+    return filterNotNullPipeline(this)
 }
 
 /**
  * Returns an iterator obtained by applying *transform*, a function transforming an object of type *T* into an object of type *R*
  */
 public inline fun <T, R> Iterator<T>.map(transform : (T) -> R) : Iterator<R> {
-    return MapIterator<T, R>(this, transform)
+    return mapPipeline(this, transform)
 }
 
 /**
@@ -63,7 +63,7 @@ public inline fun <T> Iterator<T>.take(n: Int) : Iterator<T> {
  * Returns an iterator restricted to the first elements that match the given *predicate*
  */
 public inline fun <T> Iterator<T>.takeWhile(predicate: (T) -> Boolean) : Iterator<T> {
-    return TakeWhileIterator<T>(this, predicate)
+    return takeWhilePipeline(this, predicate)
 }
 
 /**
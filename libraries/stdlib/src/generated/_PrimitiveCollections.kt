@@ -0,0 +1,1503 @@
+package kotlin
+
+//
+// NOTE THIS FILE IS AUTO-GENERATED by the GenerateStandardLib.kt
+// See: https://github.com/JetBrains/kotlin/tree/master/libraries/stdlib
+//
+
+import java.util.NoSuchElementException
+
+/**
+ * A growable list of unboxed Int values backed by a primitive array
+ */
+public class IntList(initialCapacity: Int = 10) {
+    private var elements = IntArray(initialCapacity)
+    private var length = 0
+
+    public fun size(): Int = length
+
+    public fun isEmpty(): Boolean = length == 0
+
+    public fun get(index: Int): Int {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    public fun set(index: Int, value: Int): Int {
+        checkIndex(index)
+        val old = elements[index]
+        elements[index] = value
+        return old
+    }
+
+    public fun add(value: Int) {
+        ensureCapacity(length + 1)
+        elements[length++] = value
+    }
+
+    public fun addAll(values: IntArray) {
+        ensureCapacity(length + values.size)
+        System.arraycopy(values, 0, elements, length, values.size)
+        length += values.size
+    }
+
+    public fun removeLast(): Int {
+        if (length == 0) throw NoSuchElementException("List is empty")
+        return elements[--length]
+    }
+
+    public fun contains(value: Int): Boolean = indexOf(value) >= 0
+
+    public fun indexOf(value: Int): Int {
+        for (i in 0..length - 1) {
+            if (elements[i] == value) return i
+        }
+        return -1
+    }
+
+    public fun clear() {
+        length = 0
+    }
+
+    public fun ensureCapacity(capacity: Int) {
+        if (capacity > elements.size) {
+            elements = elements.copyOf(Math.max(capacity, elements.size * 2 + 1))
+        }
+    }
+
+    public fun toArray(): IntArray = elements.copyOf(length)
+
+    public fun iterator(): IntIterator = object : IntIterator() {
+        private var index = 0
+
+        override fun hasNext(): Boolean = index < length
+
+        override fun nextInt(): Int {
+            if (index >= length) throw NoSuchElementException()
+            return elements[index++]
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (i in 0..length - 1) {
+            if (i > 0) builder.append(", ")
+            builder.append(elements[i])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: " + index + ", size: " + length)
+    }
+}
+
+/**
+ * A growable list of unboxed Long values backed by a primitive array
+ */
+public class LongList(initialCapacity: Int = 10) {
+    private var elements = LongArray(initialCapacity)
+    private var length = 0
+
+    public fun size(): Int = length
+
+    public fun isEmpty(): Boolean = length == 0
+
+    public fun get(index: Int): Long {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    public fun set(index: Int, value: Long): Long {
+        checkIndex(index)
+        val old = elements[index]
+        elements[index] = value
+        return old
+    }
+
+    public fun add(value: Long) {
+        ensureCapacity(length + 1)
+        elements[length++] = value
+    }
+
+    public fun addAll(values: LongArray) {
+        ensureCapacity(length + values.size)
+        System.arraycopy(values, 0, elements, length, values.size)
+        length += values.size
+    }
+
+    public fun removeLast(): Long {
+        if (length == 0) throw NoSuchElementException("List is empty")
+        return elements[--length]
+    }
+
+    public fun contains(value: Long): Boolean = indexOf(value) >= 0
+
+    public fun indexOf(value: Long): Int {
+        for (i in 0..length - 1) {
+            if (elements[i] == value) return i
+        }
+        return -1
+    }
+
+    public fun clear() {
+        length = 0
+    }
+
+    public fun ensureCapacity(capacity: Int) {
+        if (capacity > elements.size) {
+            elements = elements.copyOf(Math.max(capacity, elements.size * 2 + 1))
+        }
+    }
+
+    public fun toArray(): LongArray = elements.copyOf(length)
+
+    public fun iterator(): LongIterator = object : LongIterator() {
+        private var index = 0
+
+        override fun hasNext(): Boolean = index < length
+
+        override fun nextLong(): Long {
+            if (index >= length) throw NoSuchElementException()
+            return elements[index++]
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (i in 0..length - 1) {
+            if (i > 0) builder.append(", ")
+            builder.append(elements[i])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: " + index + ", size: " + length)
+    }
+}
+
+/**
+ * A growable list of unboxed Double values backed by a primitive array
+ */
+public class DoubleList(initialCapacity: Int = 10) {
+    private var elements = DoubleArray(initialCapacity)
+    private var length = 0
+
+    public fun size(): Int = length
+
+    public fun isEmpty(): Boolean = length == 0
+
+    public fun get(index: Int): Double {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    public fun set(index: Int, value: Double): Double {
+        checkIndex(index)
+        val old = elements[index]
+        elements[index] = value
+        return old
+    }
+
+    public fun add(value: Double) {
+        ensureCapacity(length + 1)
+        elements[length++] = value
+    }
+
+    public fun addAll(values: DoubleArray) {
+        ensureCapacity(length + values.size)
+        System.arraycopy(values, 0, elements, length, values.size)
+        length += values.size
+    }
+
+    public fun removeLast(): Double {
+        if (length == 0) throw NoSuchElementException("List is empty")
+        return elements[--length]
+    }
+
+    public fun contains(value: Double): Boolean = indexOf(value) >= 0
+
+    public fun indexOf(value: Double): Int {
+        for (i in 0..length - 1) {
+            if (elements[i] == value) return i
+        }
+        return -1
+    }
+
+    public fun clear() {
+        length = 0
+    }
+
+    public fun ensureCapacity(capacity: Int) {
+        if (capacity > elements.size) {
+            elements = elements.copyOf(Math.max(capacity, elements.size * 2 + 1))
+        }
+    }
+
+    public fun toArray(): DoubleArray = elements.copyOf(length)
+
+    public fun iterator(): DoubleIterator = object : DoubleIterator() {
+        private var index = 0
+
+        override fun hasNext(): Boolean = index < length
+
+        override fun nextDouble(): Double {
+            if (index >= length) throw NoSuchElementException()
+            return elements[index++]
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (i in 0..length - 1) {
+            if (i > 0) builder.append(", ")
+            builder.append(elements[i])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: " + index + ", size: " + length)
+    }
+}
+
+/**
+ * A set of unboxed Int values stored in an open-addressing hash table with linear probing
+ */
+public class IntSet(expectedSize: Int = 8) {
+    private var keys = IntArray(primitiveHashTableSize(expectedSize))
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun contains(value: Int): Boolean = occupied[slot(value)]
+
+    public fun add(value: Int): Boolean {
+        val i = slot(value)
+        if (occupied[i]) return false
+        keys[i] = value
+        occupied[i] = true
+        if (++count > keys.size / 4 * 3) rehash()
+        return true
+    }
+
+    public fun remove(value: Int): Boolean {
+        val i = slot(value)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun toArray(): IntArray {
+        val result = IntArray(count)
+        var j = 0
+        for (i in 0..keys.size - 1) {
+            if (occupied[i]) result[j++] = keys[i]
+        }
+        return result
+    }
+
+    public fun iterator(): IntIterator = object : IntIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextInt(): Int {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i])
+        }
+        return builder.append("]").toString()
+    }
+
+    // The slot containing the value, or the free slot where it should be put
+    private fun slot(value: Int): Int {
+        val mask = keys.size - 1
+        var i = hash(value) and mask
+        while (occupied[i] && keys[i] != value) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its value
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldOccupied = occupied
+        keys = IntArray(oldKeys.size * 2)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(value: Int): Int {
+        val h = value * -1640531527
+        return h xor (h ushr 16)
+    }
+}
+
+/**
+ * A set of unboxed Long values stored in an open-addressing hash table with linear probing
+ */
+public class LongSet(expectedSize: Int = 8) {
+    private var keys = LongArray(primitiveHashTableSize(expectedSize))
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun contains(value: Long): Boolean = occupied[slot(value)]
+
+    public fun add(value: Long): Boolean {
+        val i = slot(value)
+        if (occupied[i]) return false
+        keys[i] = value
+        occupied[i] = true
+        if (++count > keys.size / 4 * 3) rehash()
+        return true
+    }
+
+    public fun remove(value: Long): Boolean {
+        val i = slot(value)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun toArray(): LongArray {
+        val result = LongArray(count)
+        var j = 0
+        for (i in 0..keys.size - 1) {
+            if (occupied[i]) result[j++] = keys[i]
+        }
+        return result
+    }
+
+    public fun iterator(): LongIterator = object : LongIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextLong(): Long {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i])
+        }
+        return builder.append("]").toString()
+    }
+
+    // The slot containing the value, or the free slot where it should be put
+    private fun slot(value: Long): Int {
+        val mask = keys.size - 1
+        var i = hash(value) and mask
+        while (occupied[i] && keys[i] != value) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its value
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldOccupied = occupied
+        keys = LongArray(oldKeys.size * 2)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(value: Long): Int {
+        val h = value * -7046029254386353131
+        return (h xor (h ushr 32)).toInt()
+    }
+}
+
+/**
+ * A map from unboxed Int keys to unboxed Int values stored in an open-addressing hash table with linear probing
+ */
+public class IntIntMap(expectedSize: Int = 8) {
+    private var keys = IntArray(primitiveHashTableSize(expectedSize))
+    private var values = IntArray(keys.size)
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun containsKey(key: Int): Boolean = occupied[slot(key)]
+
+    public fun get(key: Int): Int {
+        val i = slot(key)
+        if (!occupied[i]) throw NoSuchElementException("Key " + key + " is missing in the map")
+        return values[i]
+    }
+
+    public fun getOrDefault(key: Int, defaultValue: Int): Int {
+        val i = slot(key)
+        return if (occupied[i]) values[i] else defaultValue
+    }
+
+    public fun set(key: Int, value: Int) {
+        put(key, value)
+    }
+
+    public fun put(key: Int, value: Int) {
+        val i = slot(key)
+        values[i] = value
+        if (!occupied[i]) {
+            keys[i] = key
+            occupied[i] = true
+            if (++count > keys.size / 4 * 3) rehash()
+        }
+    }
+
+    public fun remove(key: Int): Boolean {
+        val i = slot(key)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun keyIterator(): IntIterator = object : IntIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextInt(): Int {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i]).append("=").append(values[i])
+        }
+        return builder.append("}").toString()
+    }
+
+    // The slot containing the key, or the free slot where it should be put
+    private fun slot(key: Int): Int {
+        val mask = keys.size - 1
+        var i = hash(key) and mask
+        while (occupied[i] && keys[i] != key) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its key
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                values[free] = values[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldValues = values
+        val oldOccupied = occupied
+        keys = IntArray(oldKeys.size * 2)
+        values = IntArray(keys.size)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                values[j] = oldValues[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(key: Int): Int {
+        val h = key * -1640531527
+        return h xor (h ushr 16)
+    }
+}
+
+/**
+ * A map from unboxed Int keys to unboxed Long values stored in an open-addressing hash table with linear probing
+ */
+public class IntLongMap(expectedSize: Int = 8) {
+    private var keys = IntArray(primitiveHashTableSize(expectedSize))
+    private var values = LongArray(keys.size)
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun containsKey(key: Int): Boolean = occupied[slot(key)]
+
+    public fun get(key: Int): Long {
+        val i = slot(key)
+        if (!occupied[i]) throw NoSuchElementException("Key " + key + " is missing in the map")
+        return values[i]
+    }
+
+    public fun getOrDefault(key: Int, defaultValue: Long): Long {
+        val i = slot(key)
+        return if (occupied[i]) values[i] else defaultValue
+    }
+
+    public fun set(key: Int, value: Long) {
+        put(key, value)
+    }
+
+    public fun put(key: Int, value: Long) {
+        val i = slot(key)
+        values[i] = value
+        if (!occupied[i]) {
+            keys[i] = key
+            occupied[i] = true
+            if (++count > keys.size / 4 * 3) rehash()
+        }
+    }
+
+    public fun remove(key: Int): Boolean {
+        val i = slot(key)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun keyIterator(): IntIterator = object : IntIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextInt(): Int {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i]).append("=").append(values[i])
+        }
+        return builder.append("}").toString()
+    }
+
+    // The slot containing the key, or the free slot where it should be put
+    private fun slot(key: Int): Int {
+        val mask = keys.size - 1
+        var i = hash(key) and mask
+        while (occupied[i] && keys[i] != key) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its key
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                values[free] = values[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldValues = values
+        val oldOccupied = occupied
+        keys = IntArray(oldKeys.size * 2)
+        values = LongArray(keys.size)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                values[j] = oldValues[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(key: Int): Int {
+        val h = key * -1640531527
+        return h xor (h ushr 16)
+    }
+}
+
+/**
+ * A map from unboxed Int keys to unboxed Double values stored in an open-addressing hash table with linear probing
+ */
+public class IntDoubleMap(expectedSize: Int = 8) {
+    private var keys = IntArray(primitiveHashTableSize(expectedSize))
+    private var values = DoubleArray(keys.size)
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun containsKey(key: Int): Boolean = occupied[slot(key)]
+
+    public fun get(key: Int): Double {
+        val i = slot(key)
+        if (!occupied[i]) throw NoSuchElementException("Key " + key + " is missing in the map")
+        return values[i]
+    }
+
+    public fun getOrDefault(key: Int, defaultValue: Double): Double {
+        val i = slot(key)
+        return if (occupied[i]) values[i] else defaultValue
+    }
+
+    public fun set(key: Int, value: Double) {
+        put(key, value)
+    }
+
+    public fun put(key: Int, value: Double) {
+        val i = slot(key)
+        values[i] = value
+        if (!occupied[i]) {
+            keys[i] = key
+            occupied[i] = true
+            if (++count > keys.size / 4 * 3) rehash()
+        }
+    }
+
+    public fun remove(key: Int): Boolean {
+        val i = slot(key)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun keyIterator(): IntIterator = object : IntIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextInt(): Int {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i]).append("=").append(values[i])
+        }
+        return builder.append("}").toString()
+    }
+
+    // The slot containing the key, or the free slot where it should be put
+    private fun slot(key: Int): Int {
+        val mask = keys.size - 1
+        var i = hash(key) and mask
+        while (occupied[i] && keys[i] != key) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its key
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                values[free] = values[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldValues = values
+        val oldOccupied = occupied
+        keys = IntArray(oldKeys.size * 2)
+        values = DoubleArray(keys.size)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                values[j] = oldValues[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(key: Int): Int {
+        val h = key * -1640531527
+        return h xor (h ushr 16)
+    }
+}
+
+/**
+ * A map from unboxed Long keys to unboxed Int values stored in an open-addressing hash table with linear probing
+ */
+public class LongIntMap(expectedSize: Int = 8) {
+    private var keys = LongArray(primitiveHashTableSize(expectedSize))
+    private var values = IntArray(keys.size)
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun containsKey(key: Long): Boolean = occupied[slot(key)]
+
+    public fun get(key: Long): Int {
+        val i = slot(key)
+        if (!occupied[i]) throw NoSuchElementException("Key " + key + " is missing in the map")
+        return values[i]
+    }
+
+    public fun getOrDefault(key: Long, defaultValue: Int): Int {
+        val i = slot(key)
+        return if (occupied[i]) values[i] else defaultValue
+    }
+
+    public fun set(key: Long, value: Int) {
+        put(key, value)
+    }
+
+    public fun put(key: Long, value: Int) {
+        val i = slot(key)
+        values[i] = value
+        if (!occupied[i]) {
+            keys[i] = key
+            occupied[i] = true
+            if (++count > keys.size / 4 * 3) rehash()
+        }
+    }
+
+    public fun remove(key: Long): Boolean {
+        val i = slot(key)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun keyIterator(): LongIterator = object : LongIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextLong(): Long {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i]).append("=").append(values[i])
+        }
+        return builder.append("}").toString()
+    }
+
+    // The slot containing the key, or the free slot where it should be put
+    private fun slot(key: Long): Int {
+        val mask = keys.size - 1
+        var i = hash(key) and mask
+        while (occupied[i] && keys[i] != key) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its key
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                values[free] = values[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldValues = values
+        val oldOccupied = occupied
+        keys = LongArray(oldKeys.size * 2)
+        values = IntArray(keys.size)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                values[j] = oldValues[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(key: Long): Int {
+        val h = key * -7046029254386353131
+        return (h xor (h ushr 32)).toInt()
+    }
+}
+
+/**
+ * A map from unboxed Long keys to unboxed Long values stored in an open-addressing hash table with linear probing
+ */
+public class LongLongMap(expectedSize: Int = 8) {
+    private var keys = LongArray(primitiveHashTableSize(expectedSize))
+    private var values = LongArray(keys.size)
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun containsKey(key: Long): Boolean = occupied[slot(key)]
+
+    public fun get(key: Long): Long {
+        val i = slot(key)
+        if (!occupied[i]) throw NoSuchElementException("Key " + key + " is missing in the map")
+        return values[i]
+    }
+
+    public fun getOrDefault(key: Long, defaultValue: Long): Long {
+        val i = slot(key)
+        return if (occupied[i]) values[i] else defaultValue
+    }
+
+    public fun set(key: Long, value: Long) {
+        put(key, value)
+    }
+
+    public fun put(key: Long, value: Long) {
+        val i = slot(key)
+        values[i] = value
+        if (!occupied[i]) {
+            keys[i] = key
+            occupied[i] = true
+            if (++count > keys.size / 4 * 3) rehash()
+        }
+    }
+
+    public fun remove(key: Long): Boolean {
+        val i = slot(key)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun keyIterator(): LongIterator = object : LongIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextLong(): Long {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i]).append("=").append(values[i])
+        }
+        return builder.append("}").toString()
+    }
+
+    // The slot containing the key, or the free slot where it should be put
+    private fun slot(key: Long): Int {
+        val mask = keys.size - 1
+        var i = hash(key) and mask
+        while (occupied[i] && keys[i] != key) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its key
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                values[free] = values[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldValues = values
+        val oldOccupied = occupied
+        keys = LongArray(oldKeys.size * 2)
+        values = LongArray(keys.size)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                values[j] = oldValues[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(key: Long): Int {
+        val h = key * -7046029254386353131
+        return (h xor (h ushr 32)).toInt()
+    }
+}
+
+/**
+ * A map from unboxed Long keys to unboxed Double values stored in an open-addressing hash table with linear probing
+ */
+public class LongDoubleMap(expectedSize: Int = 8) {
+    private var keys = LongArray(primitiveHashTableSize(expectedSize))
+    private var values = DoubleArray(keys.size)
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun containsKey(key: Long): Boolean = occupied[slot(key)]
+
+    public fun get(key: Long): Double {
+        val i = slot(key)
+        if (!occupied[i]) throw NoSuchElementException("Key " + key + " is missing in the map")
+        return values[i]
+    }
+
+    public fun getOrDefault(key: Long, defaultValue: Double): Double {
+        val i = slot(key)
+        return if (occupied[i]) values[i] else defaultValue
+    }
+
+    public fun set(key: Long, value: Double) {
+        put(key, value)
+    }
+
+    public fun put(key: Long, value: Double) {
+        val i = slot(key)
+        values[i] = value
+        if (!occupied[i]) {
+            keys[i] = key
+            occupied[i] = true
+            if (++count > keys.size / 4 * 3) rehash()
+        }
+    }
+
+    public fun remove(key: Long): Boolean {
+        val i = slot(key)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun keyIterator(): LongIterator = object : LongIterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun nextLong(): Long {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i]).append("=").append(values[i])
+        }
+        return builder.append("}").toString()
+    }
+
+    // The slot containing the key, or the free slot where it should be put
+    private fun slot(key: Long): Int {
+        val mask = keys.size - 1
+        var i = hash(key) and mask
+        while (occupied[i] && keys[i] != key) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its key
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                values[free] = values[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldValues = values
+        val oldOccupied = occupied
+        keys = LongArray(oldKeys.size * 2)
+        values = DoubleArray(keys.size)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                values[j] = oldValues[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(key: Long): Int {
+        val h = key * -7046029254386353131
+        return (h xor (h ushr 32)).toInt()
+    }
+}
+
+// The largest power of two which is a valid array size
+private val maximumHashTableSize = 1 shl 30
+
+private fun primitiveHashTableSize(expectedSize: Int): Int {
+    var size = 8
+    while (size / 4 * 3 < expectedSize && size < maximumHashTableSize) size *= 2
+    return size
+}
+
+/**
+ * Returns a new IntList containing all elements of this array
+ */
+public fun IntArray.toIntList(): IntList {
+    val result = IntList(size)
+    result.addAll(this)
+    return result
+}
+
+/**
+ * Filters all elements which match the given predicate into the given list without boxing them
+ */
+public inline fun IntArray.filterTo(result: IntList, predicate: (Int) -> Boolean) : IntList {
+    for (element in this) if (predicate(element)) result.add(element)
+    return result
+}
+
+/**
+ * Filters all elements which do not match the given predicate into the given list without boxing them
+ */
+public inline fun IntArray.filterNotTo(result: IntList, predicate: (Int) -> Boolean) : IntList {
+    for (element in this) if (!predicate(element)) result.add(element)
+    return result
+}
+
+/**
+ * Returns a new IntSet containing all distinct elements of this array
+ */
+public fun IntArray.toIntSet(): IntSet {
+    val result = IntSet(size)
+    for (element in this) result.add(element)
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun IntArray.mapTo(result: IntList, transform: (Int) -> Int) : IntList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun IntArray.mapTo(result: LongList, transform: (Int) -> Long) : LongList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun IntArray.mapTo(result: DoubleList, transform: (Int) -> Double) : DoubleList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Returns a new LongList containing all elements of this array
+ */
+public fun LongArray.toLongList(): LongList {
+    val result = LongList(size)
+    result.addAll(this)
+    return result
+}
+
+/**
+ * Filters all elements which match the given predicate into the given list without boxing them
+ */
+public inline fun LongArray.filterTo(result: LongList, predicate: (Long) -> Boolean) : LongList {
+    for (element in this) if (predicate(element)) result.add(element)
+    return result
+}
+
+/**
+ * Filters all elements which do not match the given predicate into the given list without boxing them
+ */
+public inline fun LongArray.filterNotTo(result: LongList, predicate: (Long) -> Boolean) : LongList {
+    for (element in this) if (!predicate(element)) result.add(element)
+    return result
+}
+
+/**
+ * Returns a new LongSet containing all distinct elements of this array
+ */
+public fun LongArray.toLongSet(): LongSet {
+    val result = LongSet(size)
+    for (element in this) result.add(element)
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun LongArray.mapTo(result: IntList, transform: (Long) -> Int) : IntList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun LongArray.mapTo(result: LongList, transform: (Long) -> Long) : LongList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun LongArray.mapTo(result: DoubleList, transform: (Long) -> Double) : DoubleList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Returns a new DoubleList containing all elements of this array
+ */
+public fun DoubleArray.toDoubleList(): DoubleList {
+    val result = DoubleList(size)
+    result.addAll(this)
+    return result
+}
+
+/**
+ * Filters all elements which match the given predicate into the given list without boxing them
+ */
+public inline fun DoubleArray.filterTo(result: DoubleList, predicate: (Double) -> Boolean) : DoubleList {
+    for (element in this) if (predicate(element)) result.add(element)
+    return result
+}
+
+/**
+ * Filters all elements which do not match the given predicate into the given list without boxing them
+ */
+public inline fun DoubleArray.filterNotTo(result: DoubleList, predicate: (Double) -> Boolean) : DoubleList {
+    for (element in this) if (!predicate(element)) result.add(element)
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun DoubleArray.mapTo(result: IntList, transform: (Double) -> Int) : IntList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun DoubleArray.mapTo(result: LongList, transform: (Double) -> Long) : LongList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
+
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun DoubleArray.mapTo(result: DoubleList, transform: (Double) -> Double) : DoubleList {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}
@@ -80,6 +80,75 @@ class TakeWhileIterator<T>(val iterator: Iterator<T>, val predicate: (T) -> Bool
     }
 }
 
+internal fun <T> filterPipeline(iterator: Iterator<T>, predicate: (T) -> Boolean): Iterator<T> {
+    return iterator.pipeline<T, T> { if (predicate(it)) it else SkipElement }
+}
+
+internal fun <T:Any> filterNotNullPipeline(iterator: Iterator<T?>): Iterator<T> {
+    return iterator.pipeline<T?, T> { if (it != null) it else SkipElement }
+}
+
+internal fun <T, R> mapPipeline(iterator: Iterator<T>, transform: (T) -> R): Iterator<R> {
+    return iterator.pipeline<T, R> { transform(it) }
+}
+
+internal fun <T> takeWhilePipeline(iterator: Iterator<T>, predicate: (T) -> Boolean): Iterator<T> {
+    return iterator.pipeline<T, T> { if (predicate(it)) it else EndOfPipeline }
+}
+
+/** Returned by a step of [[PipelineIterator]] to drop the element */
+private object SkipElement
+
+/** Returned by a step of [[PipelineIterator]] to end the iteration */
+private object EndOfPipeline
+
+/**
+ * An [[Iterator]] over the elements of the *source* iterator passed through a chain of lazy operations fused into a single *step*.
+ *
+ * The step returns the element to produce, [[SkipElement]] to drop it or [[EndOfPipeline]] to stop.
+ * Filtering, mapping and taking elements from a pipeline which has not been iterated yet extend its step instead
+ * of putting another iterator on top of it, so the whole chain is computed in a single loop without intermediate iterators.
+ */
+private class PipelineIterator<T, R>(private val source: Iterator<T>, private val step: (T) -> Any?) : AbstractIterator<R>() {
+    private var started = false
+
+    override protected fun computeNext(): Unit {
+        started = true
+        while (source.hasNext()) {
+            val result = (step)(source.next())
+            if (result === EndOfPipeline) break
+            if (result !== SkipElement) {
+                setNext(result as R)
+                return
+            }
+        }
+        done()
+    }
+
+    /** Returns an iterator over the results of *nextStep* applied to the elements of this pipeline */
+    fun <S> then(nextStep: (R) -> Any?): Iterator<S> {
+        // Once iterated, this pipeline may already hold an element which the fused step would skip
+        if (started) return PipelineIterator<R, S>(this, nextStep)
+
+        val step = step
+        return PipelineIterator<T, S>(source) {
+            val result = step(it)
+            if (result === SkipElement || result === EndOfPipeline) result else nextStep(result as R)
+        }
+    }
+}
+
+/**
+ * Returns an iterator over the results of the *step* applied to the elements of this iterator, fused into this
+ * iterator if it is a [[PipelineIterator]]
+ */
+private fun <T, R> Iterator<T>.pipeline(step: (T) -> Any?): Iterator<R> {
+    if (this is PipelineIterator<*, *>) {
+        return (this as PipelineIterator<Any?, T>).then<R>(step)
+    }
+    return PipelineIterator<T, R>(this, step)
+}
+
 /** An [[Iterator]] which invokes a function to calculate the next value in the iteration until the function returns *null* */
 class FunctionIterator<T:Any>(val nextFunction: () -> T?): AbstractIterator<T>() {
 
@@ -12,18 +12,35 @@ class FunctionalQueue<T> (
     val empty : Boolean
         get() = size == 0
 
-    public fun add(element: T) : FunctionalQueue<T> = FunctionalQueue<T>(input add element, output)
+    // Elements are taken from the output and added to the input. When the output runs out, the input is reversed
+    // into the output once for all its elements, so every element is moved once and the operations take amortized O(1)
+    public fun add(element: T) : FunctionalQueue<T> =
+        if(empty)
+            FunctionalQueue<T>(input, output add element)
+        else
+            FunctionalQueue<T>(input add element, output)
 
     public fun addFirst(element: T) : FunctionalQueue<T> = FunctionalQueue<T>(input, output add element)
 
-    public fun removeFirst() : Pair<T, FunctionalQueue<T>> =
-        if(output.empty) {
-            if(input.empty)
-                throw java.util.NoSuchElementException()
+    /** The first element of the queue */
+    public val head : T
+        get() = if(output.empty) normalized().head else output.head
+
+    /** The queue without its first element */
+    public val tail : FunctionalQueue<T>
+        get() =
+            if(output.empty)
+                normalized().tail
+            else if(output.size == 1)
+                FunctionalQueue<T>(FunctionalList.emptyList<T>(), input.reversed())
             else
-                FunctionalQueue<T>(FunctionalList.emptyList<T>(), input.reversed()).removeFirst()
-        }
-        else {
-            Pair(output.head, FunctionalQueue<T>(input, output.tail))
-        }
+                FunctionalQueue<T>(input, output.tail)
+
+    public fun removeFirst() : Pair<T, FunctionalQueue<T>> = Pair(head, tail)
+
+    private fun normalized() : FunctionalQueue<T> =
+        if(input.empty)
+            throw java.util.NoSuchElementException()
+        else
+            FunctionalQueue<T>(FunctionalList.emptyList<T>(), input.reversed())
 }
@@ -0,0 +1,529 @@
+package kotlin.concurrent
+
+import java.util.ArrayList
+import java.util.Arrays
+import java.util.Comparator
+import java.util.LinkedHashMap
+import java.util.RandomAccess
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+
+/*
+ * Data parallel operations on arrays and random access lists.
+ *
+ * The indices are split into contiguous chunks of at least PARALLEL_THRESHOLD elements, at most a few per processor.
+ * The chunks are computed on a shared pool of daemon threads, the calling thread computes the first one itself,
+ * and the results of the chunks are combined in order, so the operations return the same results as their
+ * sequential counterparts. An operation started on a thread of the pool is computed sequentially: waiting for
+ * the pool from inside it could exhaust the pool.
+ */
+
+private val PARALLEL_THRESHOLD = 4096
+private val SORT_THRESHOLD = 8192
+
+private val parallelism = Runtime.getRuntime().availableProcessors()
+
+private class ParallelWorker(runnable: Runnable?, name: String) : Thread(runnable, name)
+
+private val parallelExecutor: ExecutorService = Executors.newFixedThreadPool(parallelism, object : ThreadFactory {
+    private val count = AtomicInteger()
+
+    public override fun newThread(runnable: Runnable?): Thread {
+        val thread = ParallelWorker(runnable, "kotlin-parallel-" + count.incrementAndGet())
+        thread.setDaemon(true)
+        return thread
+    }
+})
+
+/**
+ * Returns the bounds of the chunks of indices 0..size-1: chunk *i* is bounds[i] until bounds[i + 1]
+ */
+private fun chunkBounds(size: Int, threshold: Int): IntArray {
+    val chunkCount = if (Thread.currentThread() is ParallelWorker) 1 else Math.max(1, Math.min(parallelism * 4, size / threshold))
+    val bounds = IntArray(chunkCount + 1)
+    for (i in 1..chunkCount) {
+        bounds[i] = (size.toLong() * i / chunkCount).toInt()
+    }
+    return bounds
+}
+
+/**
+ * Computes *task* for every index from 0 until *count* in parallel and returns the results in order
+ */
+private fun <R> parallelTasks(count: Int, task: (Int) -> R): List<R> {
+    val results = ArrayList<R>(count)
+    if (count == 1 || Thread.currentThread() is ParallelWorker) {
+        for (i in 0..count - 1) results.add(task(i))
+        return results
+    }
+
+    val futures = ArrayList<Future<R>>(count - 1)
+    for (i in 1..count - 1) {
+        futures.add(parallelExecutor.submit(object : Callable<R> {
+            public override fun call(): R = task(i)
+        }))
+    }
+    try {
+        results.add(task(0))
+        for (future in futures) {
+            try {
+                results.add(future.get() as R)
+            }
+            catch (e: ExecutionException) {
+                throw e.getCause() ?: e
+            }
+        }
+    }
+    finally {
+        for (future in futures) future.cancel(false)
+    }
+    return results
+}
+
+/**
+ * Computes *chunk* for every chunk of indices 0..size-1 in parallel and returns the results in order
+ */
+private fun <R> parallelChunks(size: Int, threshold: Int, chunk: (Int, Int) -> R): List<R> {
+    val bounds = chunkBounds(size, threshold)
+    return parallelTasks(bounds.size - 1) { chunk(bounds[it], bounds[it + 1]) }
+}
+
+private fun <T> concatenate(chunks: List<List<T>>): List<T> {
+    if (chunks.size() == 1) return chunks[0]
+    var size = 0
+    for (chunk in chunks) size += chunk.size()
+    val result = ArrayList<T>(size)
+    for (chunk in chunks) result.addAll(chunk)
+    return result
+}
+
+/**
+ * Sorts the chunks of indices 0..size-1 in parallel, then merges neighbouring runs in parallel until one run is left
+ */
+private fun parallelMergeSort(size: Int, sortRange: (Int, Int) -> Unit, mergeRuns: (Int, Int, Int) -> Unit) {
+    val chunks = chunkBounds(size, SORT_THRESHOLD)
+    parallelTasks(chunks.size - 1) { sortRange(chunks[it], chunks[it + 1]) }
+
+    var runs = chunks
+    while (runs.size > 2) {
+        val bounds = runs
+        val runCount = bounds.size - 1
+        parallelTasks(runCount / 2) { mergeRuns(bounds[2 * it], bounds[2 * it + 1], bounds[2 * it + 2]) }
+
+        runs = IntArray((runCount + 1) / 2 + 1)
+        for (i in 0..runs.size - 1) {
+            runs[i] = bounds[Math.min(2 * i, runCount)]
+        }
+    }
+}
+
+private fun <T, R> parallelMapIndices(size: Int, get: (Int) -> T, transform: (T) -> R): List<R> {
+    return concatenate(parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        val result = ArrayList<R>(to - from)
+        for (i in from..to - 1) result.add(transform(get(i)))
+        result
+    })
+}
+
+private fun <T> parallelFilterIndices(size: Int, get: (Int) -> T, predicate: (T) -> Boolean): List<T> {
+    return concatenate(parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        val result = ArrayList<T>()
+        for (i in from..to - 1) {
+            val element = get(i)
+            if (predicate(element)) result.add(element)
+        }
+        result
+    })
+}
+
+private fun <T> parallelForEachIndex(size: Int, get: (Int) -> T, operation: (T) -> Unit) {
+    parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        for (i in from..to - 1) operation(get(i))
+    }
+}
+
+private fun <T, R> parallelFoldIndices(size: Int, get: (Int) -> T, initial: R, operation: (R, T) -> R, combine: (R, R) -> R): R {
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        var result = initial
+        for (i in from..to - 1) result = operation(result, get(i))
+        result
+    }
+    var result = chunks[0]
+    for (i in 1..chunks.size() - 1) result = combine(result, chunks[i])
+    return result
+}
+
+private fun <T> parallelReduceIndices(size: Int, get: (Int) -> T, operation: (T, T) -> T): T {
+    if (size == 0) {
+        throw UnsupportedOperationException("Empty iterable can't be reduced")
+    }
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        var result = get(from)
+        for (i in from + 1..to - 1) result = operation(result, get(i))
+        result
+    }
+    var result = chunks[0]
+    for (i in 1..chunks.size() - 1) result = operation(result, chunks[i])
+    return result
+}
+
+private fun <T, K> parallelGroupByIndices(size: Int, get: (Int) -> T, toKey: (T) -> K): Map<K, List<T>> {
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        val groups = LinkedHashMap<K, MutableList<T>>()
+        for (i in from..to - 1) {
+            val element = get(i)
+            groups.getOrPut(toKey(element)) { ArrayList<T>() }.add(element)
+        }
+        groups
+    }
+    val result = chunks[0]
+    for (i in 1..chunks.size() - 1) {
+        for (entry in chunks[i].entrySet()) {
+            val group = result.get(entry.getKey())
+            if (group == null) {
+                result.put(entry.getKey(), entry.getValue())
+            }
+            else {
+                group.addAll(entry.getValue())
+            }
+        }
+    }
+    return result
+}
+
+/**
+ * Returns a list containing the results of applying the given *transform* function to each element, computed in parallel
+ */
+public fun <T, R> Array<out T>.parallelMap(transform: (T) -> R): List<R> = parallelMapIndices(size, { this[it] }, transform)
+
+/**
+ * Returns a list containing all elements which match the given *predicate*, tested in parallel
+ */
+public fun <T> Array<out T>.parallelFilter(predicate: (T) -> Boolean): List<T> = parallelFilterIndices(size, { this[it] }, predicate)
+
+/**
+ * Performs the given *operation* on each element in parallel, in no particular order
+ */
+public fun <T> Array<out T>.parallelForEach(operation: (T) -> Unit): Unit = parallelForEachIndex(size, { this[it] }, operation)
+
+/**
+ * Folds chunks of the array in parallel starting each one with *initial* value, then folds the results with *combine*.
+ * *initial* should be the identity of *combine*, e.g. 0 for a sum
+ */
+public fun <T, R> Array<out T>.parallelFold(initial: R, operation: (R, T) -> R, combine: (R, R) -> R): R {
+    return parallelFoldIndices(size, { this[it] }, initial, operation, combine)
+}
+
+/**
+ * Applies the associative binary *operation* to all elements, computing chunks of the array in parallel
+ */
+public fun <T> Array<out T>.parallelReduce(operation: (T, T) -> T): T = parallelReduceIndices(size, { this[it] }, operation)
+
+/**
+ * Returns a map of the elements grouped by the result of the *toKey* function, computed in parallel.
+ * The groups and the elements in them are in the order of the array
+ */
+public fun <T, K> Array<out T>.parallelGroupBy(toKey: (T) -> K): Map<K, List<T>> = parallelGroupByIndices(size, { this[it] }, toKey)
+
+/**
+ * Sorts the array in place with the given *comparator* in parallel. The sort is stable
+ */
+public fun <T> Array<T>.parallelSort(comparator: Comparator<in T>) {
+    parallelMergeSort(size, { from, to -> Arrays.sort(this, from, to, comparator) }) { from, mid, to ->
+        val left = copyOfRange(from, mid)
+        var i = 0
+        var j = mid
+        var k = from
+        while (i < left.size && j < to) {
+            // The left element goes first when equal, to keep the sort stable
+            if (comparator.compare(this[j], left[i]) < 0) this[k++] = this[j++] else this[k++] = left[i++]
+        }
+        while (i < left.size) this[k++] = left[i++]
+    }
+}
+
+/**
+ * Returns a list containing the results of applying the given *transform* function to each element, computed in parallel.
+ * A list which doesn't support fast random access is copied first
+ */
+public fun <T, R> List<T>.parallelMap(transform: (T) -> R): List<R> {
+    val list = randomAccess()
+    return parallelMapIndices(list.size(), { list[it] }, transform)
+}
+
+/**
+ * Returns a list containing all elements which match the given *predicate*, tested in parallel
+ */
+public fun <T> List<T>.parallelFilter(predicate: (T) -> Boolean): List<T> {
+    val list = randomAccess()
+    return parallelFilterIndices(list.size(), { list[it] }, predicate)
+}
+
+/**
+ * Performs the given *operation* on each element in parallel, in no particular order
+ */
+public fun <T> List<T>.parallelForEach(operation: (T) -> Unit) {
+    val list = randomAccess()
+    parallelForEachIndex(list.size(), { list[it] }, operation)
+}
+
+/**
+ * Folds chunks of the list in parallel starting each one with *initial* value, then folds the results with *combine*.
+ * *initial* should be the identity of *combine*, e.g. 0 for a sum
+ */
+public fun <T, R> List<T>.parallelFold(initial: R, operation: (R, T) -> R, combine: (R, R) -> R): R {
+    val list = randomAccess()
+    return parallelFoldIndices(list.size(), { list[it] }, initial, operation, combine)
+}
+
+/**
+ * Applies the associative binary *operation* to all elements, computing chunks of the list in parallel
+ */
+public fun <T> List<T>.parallelReduce(operation: (T, T) -> T): T {
+    val list = randomAccess()
+    return parallelReduceIndices(list.size(), { list[it] }, operation)
+}
+
+/**
+ * Returns a map of the elements grouped by the result of the *toKey* function, computed in parallel.
+ * The groups and the elements in them are in the order of the list
+ */
+public fun <T, K> List<T>.parallelGroupBy(toKey: (T) -> K): Map<K, List<T>> {
+    val list = randomAccess()
+    return parallelGroupByIndices(list.size(), { list[it] }, toKey)
+}
+
+private fun <T> List<T>.randomAccess(): List<T> = if (this is RandomAccess) this else ArrayList<T>(this)
+
+/**
+ * Returns an array of the results of applying the given *transform* function to each element, computed in parallel
+ */
+public fun IntArray.parallelMap(transform: (Int) -> Int): IntArray {
+    val result = IntArray(size)
+    parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        for (i in from..to - 1) result[i] = transform(this[i])
+    }
+    return result
+}
+
+/**
+ * Returns an array of the elements which match the given *predicate*, tested in parallel
+ */
+public fun IntArray.parallelFilter(predicate: (Int) -> Boolean): IntArray {
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        val chunk = IntArray(to - from)
+        var count = 0
+        for (i in from..to - 1) {
+            if (predicate(this[i])) chunk[count++] = this[i]
+        }
+        chunk.copyOf(count)
+    }
+    var resultSize = 0
+    for (chunk in chunks) resultSize += chunk.size
+    val result = IntArray(resultSize)
+    var offset = 0
+    for (chunk in chunks) {
+        System.arraycopy(chunk, 0, result, offset, chunk.size)
+        offset += chunk.size
+    }
+    return result
+}
+
+/**
+ * Performs the given *operation* on each element in parallel, in no particular order
+ */
+public fun IntArray.parallelForEach(operation: (Int) -> Unit) {
+    parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        for (i in from..to - 1) operation(this[i])
+    }
+}
+
+/**
+ * Applies the associative binary *operation* to all elements, computing chunks of the array in parallel
+ */
+public fun IntArray.parallelReduce(operation: (Int, Int) -> Int): Int {
+    if (size == 0) {
+        throw UnsupportedOperationException("Empty iterable can't be reduced")
+    }
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        var result = this[from]
+        for (i in from + 1..to - 1) result = operation(result, this[i])
+        result
+    }
+    var result = chunks[0]
+    for (i in 1..chunks.size() - 1) result = operation(result, chunks[i])
+    return result
+}
+
+/**
+ * Sorts the array in place into ascending order in parallel
+ */
+public fun IntArray.parallelSort() {
+    parallelMergeSort(size, { from, to -> Arrays.sort(this, from, to) }) { from, mid, to ->
+        val left = copyOfRange(from, mid)
+        var i = 0
+        var j = mid
+        var k = from
+        while (i < left.size && j < to) {
+            if (this[j] < left[i]) this[k++] = this[j++] else this[k++] = left[i++]
+        }
+        while (i < left.size) this[k++] = left[i++]
+    }
+}
+
+/**
+ * Returns an array of the results of applying the given *transform* function to each element, computed in parallel
+ */
+public fun LongArray.parallelMap(transform: (Long) -> Long): LongArray {
+    val result = LongArray(size)
+    parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        for (i in from..to - 1) result[i] = transform(this[i])
+    }
+    return result
+}
+
+/**
+ * Returns an array of the elements which match the given *predicate*, tested in parallel
+ */
+public fun LongArray.parallelFilter(predicate: (Long) -> Boolean): LongArray {
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        val chunk = LongArray(to - from)
+        var count = 0
+        for (i in from..to - 1) {
+            if (predicate(this[i])) chunk[count++] = this[i]
+        }
+        chunk.copyOf(count)
+    }
+    var resultSize = 0
+    for (chunk in chunks) resultSize += chunk.size
+    val result = LongArray(resultSize)
+    var offset = 0
+    for (chunk in chunks) {
+        System.arraycopy(chunk, 0, result, offset, chunk.size)
+        offset += chunk.size
+    }
+    return result
+}
+
+/**
+ * Performs the given *operation* on each element in parallel, in no particular order
+ */
+public fun LongArray.parallelForEach(operation: (Long) -> Unit) {
+    parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        for (i in from..to - 1) operation(this[i])
+    }
+}
+
+/**
+ * Applies the associative binary *operation* to all elements, computing chunks of the array in parallel
+ */
+public fun LongArray.parallelReduce(operation: (Long, Long) -> Long): Long {
+    if (size == 0) {
+        throw UnsupportedOperationException("Empty iterable can't be reduced")
+    }
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        var result = this[from]
+        for (i in from + 1..to - 1) result = operation(result, this[i])
+        result
+    }
+    var result = chunks[0]
+    for (i in 1..chunks.size() - 1) result = operation(result, chunks[i])
+    return result
+}
+
+/**
+ * Sorts the array in place into ascending order in parallel
+ */
+public fun LongArray.parallelSort() {
+    parallelMergeSort(size, { from, to -> Arrays.sort(this, from, to) }) { from, mid, to ->
+        val left = copyOfRange(from, mid)
+        var i = 0
+        var j = mid
+        var k = from
+        while (i < left.size && j < to) {
+            if (this[j] < left[i]) this[k++] = this[j++] else this[k++] = left[i++]
+        }
+        while (i < left.size) this[k++] = left[i++]
+    }
+}
+
+/**
+ * Returns an array of the results of applying the given *transform* function to each element, computed in parallel
+ */
+public fun DoubleArray.parallelMap(transform: (Double) -> Double): DoubleArray {
+    val result = DoubleArray(size)
+    parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        for (i in from..to - 1) result[i] = transform(this[i])
+    }
+    return result
+}
+
+/**
+ * Returns an array of the elements which match the given *predicate*, tested in parallel
+ */
+public fun DoubleArray.parallelFilter(predicate: (Double) -> Boolean): DoubleArray {
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        val chunk = DoubleArray(to - from)
+        var count = 0
+        for (i in from..to - 1) {
+            if (predicate(this[i])) chunk[count++] = this[i]
+        }
+        chunk.copyOf(count)
+    }
+    var resultSize = 0
+    for (chunk in chunks) resultSize += chunk.size
+    val result = DoubleArray(resultSize)
+    var offset = 0
+    for (chunk in chunks) {
+        System.arraycopy(chunk, 0, result, offset, chunk.size)
+        offset += chunk.size
+    }
+    return result
+}
+
+/**
+ * Performs the given *operation* on each element in parallel, in no particular order
+ */
+public fun DoubleArray.parallelForEach(operation: (Double) -> Unit) {
+    parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        for (i in from..to - 1) operation(this[i])
+    }
+}
+
+/**
+ * Applies the associative binary *operation* to all elements, computing chunks of the array in parallel
+ */
+public fun DoubleArray.parallelReduce(operation: (Double, Double) -> Double): Double {
+    if (size == 0) {
+        throw UnsupportedOperationException("Empty iterable can't be reduced")
+    }
+    val chunks = parallelChunks(size, PARALLEL_THRESHOLD) { from, to ->
+        var result = this[from]
+        for (i in from + 1..to - 1) result = operation(result, this[i])
+        result
+    }
+    var result = chunks[0]
+    for (i in 1..chunks.size() - 1) result = operation(result, chunks[i])
+    return result
+}
+
+/**
+ * Sorts the array in place into ascending order in parallel, in the same order as [[Arrays.sort]]: -0.0 before 0.0 and NaN last
+ */
+public fun DoubleArray.parallelSort() {
+    parallelMergeSort(size, { from, to -> Arrays.sort(this, from, to) }) { from, mid, to ->
+        val left = copyOfRange(from, mid)
+        var i = 0
+        var j = mid
+        var k = from
+        while (i < left.size && j < to) {
+            if (java.lang.Double.compare(this[j], left[i]) < 0) this[k++] = this[j++] else this[k++] = left[i++]
+        }
+        while (i < left.size) this[k++] = left[i++]
+    }
+}
@@ -0,0 +1,420 @@
+package kotlin.concurrent
+
+import kotlin.support.AbstractIterator
+
+// Returned by MapNode.find() when there is no such key, as null may be a value
+private val NOT_FOUND = Any()
+
+private class SizeChange {
+    var delta = 0
+}
+
+/**
+ * A node of the hash array mapped trie of a [[PersistentHashMap]]. The *array* holds pairs of a key and its value,
+ * or of a child node and null. Only the builder which is the *owner* of the node may change it in place,
+ * nodes of persistent maps have no owner
+ */
+private abstract class MapNode(val owner: Any?, var array: Array<Any?>) {
+    abstract fun find(key: Any?, hash: Int, shift: Int): Any?
+
+    abstract fun put(owner: Any?, key: Any?, value: Any?, hash: Int, shift: Int, change: SizeChange): MapNode
+
+    // Returns null if the node becomes empty
+    abstract fun remove(owner: Any?, key: Any?, hash: Int, shift: Int, change: SizeChange): MapNode?
+
+    abstract fun copy(owner: Any?): MapNode
+
+    // Returns the node itself if it may be changed in place by the owner, a copy otherwise
+    fun editable(owner: Any?): MapNode = if (owner != null && this.owner === owner) this else copy(owner)
+
+    fun withValueAt(owner: Any?, index: Int, value: Any?): MapNode {
+        val node = editable(owner)
+        node.array[index] = value
+        return node
+    }
+}
+
+/**
+ * A node which holds the entries and the child nodes for the 5 bits of the hash at the given shift.
+ * A bit of the *bitmap* is set if there is an entry or a child node for the corresponding value of these bits
+ */
+private class BitmapNode(owner: Any?, var bitmap: Int, array: Array<Any?>) : MapNode(owner, array) {
+    override fun find(key: Any?, hash: Int, shift: Int): Any? {
+        val bit = bitFor(hash, shift)
+        if ((bitmap and bit) == 0) return NOT_FOUND
+
+        val i = indexOf(bit)
+        val k = array[i]
+        if (k is MapNode) return k.find(key, hash, shift + 5)
+        return if (k == key) array[i + 1] else NOT_FOUND
+    }
+
+    override fun put(owner: Any?, key: Any?, value: Any?, hash: Int, shift: Int, change: SizeChange): MapNode {
+        val bit = bitFor(hash, shift)
+        val i = indexOf(bit)
+        if ((bitmap and bit) == 0) {
+            change.delta = 1
+            val newArray = arrayOfNulls<Any>(array.size + 2)
+            System.arraycopy(array, 0, newArray, 0, i)
+            newArray[i] = key
+            newArray[i + 1] = value
+            System.arraycopy(array, i, newArray, i + 2, array.size - i)
+            return withArray(owner, bitmap or bit, newArray)
+        }
+
+        val k = array[i]
+        if (k is MapNode) {
+            val child = k.put(owner, key, value, hash, shift + 5, change)
+            return if (child === k) this else withValueAt(owner, i, child)
+        }
+        if (k == key) {
+            return if (array[i + 1] === value) this else withValueAt(owner, i + 1, value)
+        }
+
+        // Another key with the same bits of the hash: both go to a new child node
+        change.delta = 1
+        val node = withValueAt(owner, i, createNode(owner, k, array[i + 1], key, value, hash, shift + 5))
+        node.array[i + 1] = null
+        return node
+    }
+
+    override fun remove(owner: Any?, key: Any?, hash: Int, shift: Int, change: SizeChange): MapNode? {
+        val bit = bitFor(hash, shift)
+        if ((bitmap and bit) == 0) return this
+
+        val i = indexOf(bit)
+        val k = array[i]
+        if (k is MapNode) {
+            val child = k.remove(owner, key, hash, shift + 5, change)
+            if (child === k) return this
+            if (child != null) return withValueAt(owner, i, child)
+        }
+        else if (k == key) {
+            change.delta = -1
+        }
+        else {
+            return this
+        }
+
+        if (bitmap == bit) return null
+        val newArray = arrayOfNulls<Any>(array.size - 2)
+        System.arraycopy(array, 0, newArray, 0, i)
+        System.arraycopy(array, i + 2, newArray, i, array.size - i - 2)
+        return withArray(owner, bitmap xor bit, newArray)
+    }
+
+    override fun copy(owner: Any?): MapNode = BitmapNode(owner, bitmap, array.copyOf())
+
+    private fun withArray(owner: Any?, newBitmap: Int, newArray: Array<Any?>): MapNode {
+        if (owner != null && this.owner === owner) {
+            bitmap = newBitmap
+            array = newArray
+            return this
+        }
+        return BitmapNode(owner, newBitmap, newArray)
+    }
+
+    private fun indexOf(bit: Int): Int = 2 * Integer.bitCount(bitmap and (bit - 1))
+}
+
+/**
+ * A node which holds the entries with keys of the same hash
+ */
+private class CollisionNode(owner: Any?, val hash: Int, array: Array<Any?>) : MapNode(owner, array) {
+    override fun find(key: Any?, hash: Int, shift: Int): Any? {
+        if (hash != this.hash) return NOT_FOUND
+        val i = indexOf(key)
+        return if (i >= 0) array[i + 1] else NOT_FOUND
+    }
+
+    override fun put(owner: Any?, key: Any?, value: Any?, hash: Int, shift: Int, change: SizeChange): MapNode {
+        if (hash != this.hash) {
+            // Put this node one level down, under a node which can tell the hashes apart
+            val array = arrayOfNulls<Any>(2)
+            array[0] = this
+            return BitmapNode(owner, bitFor(this.hash, shift), array).put(owner, key, value, hash, shift, change)
+        }
+
+        val i = indexOf(key)
+        if (i >= 0) {
+            return if (array[i + 1] === value) this else withValueAt(owner, i + 1, value)
+        }
+
+        change.delta = 1
+        val newArray = array.copyOf(array.size + 2)
+        newArray[array.size] = key
+        newArray[array.size + 1] = value
+        return CollisionNode(owner, hash, newArray)
+    }
+
+    override fun remove(owner: Any?, key: Any?, hash: Int, shift: Int, change: SizeChange): MapNode? {
+        if (hash != this.hash) return this
+        val i = indexOf(key)
+        if (i < 0) return this
+
+        change.delta = -1
+        if (array.size == 2) return null
+        val newArray = arrayOfNulls<Any>(array.size - 2)
+        System.arraycopy(array, 0, newArray, 0, i)
+        System.arraycopy(array, i + 2, newArray, i, array.size - i - 2)
+        return CollisionNode(owner, hash, newArray)
+    }
+
+    override fun copy(owner: Any?): MapNode = CollisionNode(owner, hash, array.copyOf())
+
+    private fun indexOf(key: Any?): Int {
+        for (i in 0..array.size - 1 step 2) {
+            if (array[i] == key) return i
+        }
+        return -1
+    }
+}
+
+private fun hashOf(key: Any?): Int = key?.hashCode() ?: 0
+
+private fun bitFor(hash: Int, shift: Int): Int = 1 shl ((hash ushr shift) and 31)
+
+private fun createNode(owner: Any?, key1: Any?, value1: Any?, key2: Any?, value2: Any?, hash2: Int, shift: Int): MapNode {
+    val hash1 = hashOf(key1)
+    if (hash1 == hash2) {
+        val array = arrayOfNulls<Any>(4)
+        array[0] = key1
+        array[1] = value1
+        array[2] = key2
+        array[3] = value2
+        return CollisionNode(owner, hash1, array)
+    }
+    // The hashes differ in some of the bits below, so the keys end up in different entries
+    val change = SizeChange()
+    return BitmapNode(owner, 0, arrayOfNulls<Any>(0))
+            .put(owner, key1, value1, hash1, shift, change)
+            .put(owner, key2, value2, hash2, shift, change)
+}
+
+private val EMPTY_NODE = BitmapNode(null, 0, arrayOfNulls<Any>(0))
+
+private class MapEntryIterator<K, V>(root: MapNode) : AbstractIterator<Pair<K, V>>() {
+    // 7 levels of bitmap nodes for the 32 bits of the hash, then a collision node
+    private val nodes = nodeStack(root, 8)
+    private val positions = IntArray(8)
+    private var depth = 0
+
+    override protected fun computeNext(): Unit {
+        while (depth >= 0) {
+            val node = nodes[depth]!!
+            val i = positions[depth]
+            if (i >= node.array.size) {
+                depth--
+                continue
+            }
+            positions[depth] = i + 2
+
+            val key = node.array[i]
+            if (key is MapNode) {
+                depth++
+                nodes[depth] = key
+                positions[depth] = 0
+            }
+            else {
+                setNext(Pair(key as K, node.array[i + 1] as V))
+                return
+            }
+        }
+        done()
+    }
+}
+
+private fun nodeStack(root: MapNode, maxDepth: Int): Array<MapNode?> {
+    val nodes = arrayOfNulls<MapNode>(maxDepth)
+    nodes[0] = root
+    return nodes
+}
+
+/**
+ * An immutable hash map stored in a hash array mapped trie.
+ *
+ * Every level of the trie is indexed by the next 5 bits of the hash of a key, so [[get]], [[put]] and [[remove]] take
+ * O(log32(size)) and the new map shares all the nodes except the changed path with the original one.
+ * Use a [[PersistentHashMap.Builder]] to put many entries at once.
+ */
+public class PersistentHashMap<K, V> private (public val size: Int, private val root: MapNode) : Iterable<Pair<K, V>> {
+
+    val empty: Boolean
+        get() = size == 0
+
+    /** Returns the value for the given key, or null if the map doesn't contain the key */
+    public fun get(key: K): V? {
+        val value = root.find(key, hashOf(key), 0)
+        return if (value === NOT_FOUND) null else value as V
+    }
+
+    public fun containsKey(key: K): Boolean = root.find(key, hashOf(key), 0) !== NOT_FOUND
+
+    public fun put(key: K, value: V): PersistentHashMap<K, V> {
+        val change = SizeChange()
+        val newRoot = root.put(null, key, value, hashOf(key), 0, change)
+        return if (newRoot === root) this else PersistentHashMap(size + change.delta, newRoot)
+    }
+
+    public fun remove(key: K): PersistentHashMap<K, V> {
+        val change = SizeChange()
+        val newRoot = root.remove(null, key, hashOf(key), 0, change) ?: EMPTY_NODE
+        return if (newRoot === root) this else PersistentHashMap(size + change.delta, newRoot)
+    }
+
+    /** Returns an iterator over the entries of the map in no particular order */
+    public override fun iterator(): Iterator<Pair<K, V>> = MapEntryIterator(root)
+
+    public override fun equals(other: Any?): Boolean {
+        if (other === this) return true
+        if (other !is PersistentHashMap<*, *> || other.size != size) return false
+        val otherMap = other as PersistentHashMap<Any?, Any?>
+        for (entry in this) {
+            val value = otherMap.root.find(entry.first, hashOf(entry.first), 0)
+            if (value === NOT_FOUND || value != entry.second) return false
+        }
+        return true
+    }
+
+    public override fun hashCode(): Int {
+        var result = 0
+        for (entry in this) {
+            // The same as in java.util.Map, doesn't depend on the order of entries
+            result += hashOf(entry.first) xor hashOf(entry.second)
+        }
+        return result
+    }
+
+    public override fun toString(): String = map { "" + it.first + "=" + it.second }.makeString(", ", "{", "}")
+
+    /**
+     * Collects entries into a map, changing the nodes it has created in place instead of copying them on every change.
+     * The builder can't be used after [[build]]
+     */
+    public class Builder<K, V>(map: PersistentHashMap<K, V>) {
+        private var size = map.size
+        private var root = map.root
+        private var built = false
+
+        public fun put(key: K, value: V): Builder<K, V> {
+            checkNotBuilt()
+            val change = SizeChange()
+            root = root.put(this, key, value, hashOf(key), 0, change)
+            size += change.delta
+            return this
+        }
+
+        public fun remove(key: K): Builder<K, V> {
+            checkNotBuilt()
+            val change = SizeChange()
+            root = root.remove(this, key, hashOf(key), 0, change) ?: EMPTY_NODE
+            size += change.delta
+            return this
+        }
+
+        public fun build(): PersistentHashMap<K, V> {
+            checkNotBuilt()
+            built = true
+            return PersistentHashMap(size, root)
+        }
+
+        private fun checkNotBuilt() {
+            check(!built, "The map has already been built")
+        }
+    }
+
+    class object {
+        private val EMPTY = PersistentHashMap<Any?, Any?>(0, EMPTY_NODE)
+
+        public fun <K, V> empty(): PersistentHashMap<K, V> = EMPTY as PersistentHashMap<K, V>
+
+        public fun <K, V> of(vararg entries: Pair<K, V>): PersistentHashMap<K, V> {
+            val builder = builder<K, V>()
+            for (entry in entries) {
+                builder.put(entry.first, entry.second)
+            }
+            return builder.build()
+        }
+
+        public fun <K, V> builder(): Builder<K, V> = Builder(empty<K, V>())
+    }
+}
+
+/**
+ * Returns a builder which starts with the entries of this map
+ */
+public fun <K, V> PersistentHashMap<K, V>.toBuilder(): PersistentHashMap.Builder<K, V> = PersistentHashMap.Builder(this)
+
+/**
+ * An immutable hash set stored in a [[PersistentHashMap]]
+ */
+public class PersistentHashSet<T> private (private val map: PersistentHashMap<T, Boolean>) : Iterable<T> {
+
+    public val size: Int
+        get() = map.size
+
+    val empty: Boolean
+        get() = map.empty
+
+    public fun contains(element: T): Boolean = map.containsKey(element)
+
+    public fun add(element: T): PersistentHashSet<T> {
+        val newMap = map.put(element, true)
+        return if (newMap === map) this else PersistentHashSet(newMap)
+    }
+
+    public fun remove(element: T): PersistentHashSet<T> {
+        val newMap = map.remove(element)
+        return if (newMap === map) this else PersistentHashSet(newMap)
+    }
+
+    /** Returns an iterator over the elements of the set in no particular order */
+    public override fun iterator(): Iterator<T> = map.iterator().map { it.first }
+
+    public override fun equals(other: Any?): Boolean = other is PersistentHashSet<*> && map == other.map
+
+    public override fun hashCode(): Int = map.hashCode()
+
+    public override fun toString(): String = makeString(", ", "[", "]")
+
+    /**
+     * Collects elements into a set, changing the nodes it has created in place instead of copying them on every change.
+     * The builder can't be used after [[build]]
+     */
+    public class Builder<T>(set: PersistentHashSet<T>) {
+        private val builder = set.map.toBuilder()
+
+        public fun add(element: T): Builder<T> {
+            builder.put(element, true)
+            return this
+        }
+
+        public fun remove(element: T): Builder<T> {
+            builder.remove(element)
+            return this
+        }
+
+        public fun build(): PersistentHashSet<T> = PersistentHashSet(builder.build())
+    }
+
+    class object {
+        private val EMPTY = PersistentHashSet<Any?>(PersistentHashMap.empty<Any?, Boolean>())
+
+        public fun <T> empty(): PersistentHashSet<T> = EMPTY as PersistentHashSet<T>
+
+        public fun <T> of(vararg elements: T): PersistentHashSet<T> {
+            val builder = builder<T>()
+            for (element in elements) {
+                builder.add(element)
+            }
+            return builder.build()
+        }
+
+        public fun <T> builder(): Builder<T> = Builder(empty<T>())
+    }
+}
+
+/**
+ * Returns a builder which starts with the elements of this set
+ */
+public fun <T> PersistentHashSet<T>.toBuilder(): PersistentHashSet.Builder<T> = PersistentHashSet.Builder(this)
@@ -0,0 +1,275 @@
+package kotlin.concurrent
+
+import java.util.NoSuchElementException
+
+/**
+ * A node of the tree of a [[PersistentVector]]. Only the builder which is the *owner* of the node may change it in place,
+ * nodes of persistent vectors have no owner
+ */
+private class VectorNode(val owner: Any?, val array: Array<Any?>)
+
+/**
+ * An immutable vector with fast random access and updates.
+ *
+ * The elements are stored in the leaves of a tree with 32 children per node, so that [[get]], [[set]] and [[removeLast]]
+ * take O(log32(size)) and the new vector shares all the nodes except the changed path with the original one.
+ * The last 1 to 32 elements are kept in a separate tail array, so [[add]] mostly copies just the tail.
+ * Use a [[PersistentVector.Builder]] to add many elements at once.
+ */
+public class PersistentVector<T> private (
+        public val size: Int,
+        private val shift: Int,
+        private val root: VectorNode,
+        // Holds exactly size - tailOffset(size) elements
+        private val tail: Array<Any?>
+) : Iterable<T> {
+
+    val empty: Boolean
+        get() = size == 0
+
+    public fun get(index: Int): T {
+        checkIndex(index)
+        return leafFor(index)[index and 31] as T
+    }
+
+    public fun set(index: Int, element: T): PersistentVector<T> {
+        checkIndex(index)
+        if (index >= tailOffset(size)) {
+            val newTail = tail.copyOf()
+            newTail[index and 31] = element
+            return PersistentVector(size, shift, root, newTail)
+        }
+        return PersistentVector(size, shift, setInTree(null, shift, root, index, element), tail)
+    }
+
+    public fun add(element: T): PersistentVector<T> {
+        if (size - tailOffset(size) < 32) {
+            val newTail = tail.copyOf(tail.size + 1)
+            newTail[tail.size] = element
+            return PersistentVector(size + 1, shift, root, newTail)
+        }
+
+        val newTail = arrayOfNulls<Any>(1)
+        newTail[0] = element
+        val tailNode = VectorNode(null, tail)
+        if ((size ushr 5) > (1 shl shift)) {
+            return PersistentVector(size + 1, shift + 5, newRoot(null, root, newPath(null, shift, tailNode)), newTail)
+        }
+        return PersistentVector(size + 1, shift, pushTail(null, size, shift, root, tailNode), newTail)
+    }
+
+    public fun removeLast(): PersistentVector<T> {
+        if (size == 0) throw NoSuchElementException()
+        if (size == 1) return empty()
+
+        if (size - tailOffset(size) > 1) {
+            return PersistentVector(size - 1, shift, root, tail.copyOf(tail.size - 1))
+        }
+
+        // The last leaf of the tree becomes the tail
+        val newTail = leafFor(size - 2)
+        var newRoot = popTail(null, size, shift, root) ?: VectorNode(null, arrayOfNulls<Any>(32))
+        var newShift = shift
+        if (shift > 5 && newRoot.array[1] == null) {
+            newRoot = newRoot.array[0] as VectorNode
+            newShift -= 5
+        }
+        return PersistentVector(size - 1, newShift, newRoot, newTail)
+    }
+
+    public override fun iterator(): Iterator<T> = object : Iterator<T> {
+        private var index = 0
+        private var leaf = tail
+
+        override fun hasNext(): Boolean = index < size
+
+        override fun next(): T {
+            if (index >= size) throw NoSuchElementException()
+            if ((index and 31) == 0) {
+                leaf = leafFor(index)
+            }
+            val element = leaf[index and 31]
+            index++
+            return element as T
+        }
+    }
+
+    public override fun equals(other: Any?): Boolean {
+        if (other === this) return true
+        if (other !is PersistentVector<*> || other.size != size) return false
+        val otherIterator = other.iterator()
+        for (element in this) {
+            if (element != otherIterator.next()) return false
+        }
+        return true
+    }
+
+    public override fun hashCode(): Int {
+        var result = 1
+        for (element in this) {
+            result = 31 * result + (element?.hashCode() ?: 0)
+        }
+        return result
+    }
+
+    public override fun toString(): String = makeString(", ", "[", "]")
+
+    private fun leafFor(index: Int): Array<Any?> {
+        if (index >= tailOffset(size)) return tail
+
+        var node = root
+        var level = shift
+        while (level > 0) {
+            node = node.array[(index ushr level) and 31] as VectorNode
+            level -= 5
+        }
+        return node.array
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("Index: " + index + ", size: " + size)
+    }
+
+    /**
+     * Collects elements into a vector, changing the nodes it has created in place instead of copying them on every change.
+     * The builder can't be used after [[build]]
+     */
+    public class Builder<T>(vector: PersistentVector<T>) {
+        private var size = vector.size
+        private var shift = vector.shift
+        private var root = vector.root
+        private var tail = vector.tail.copyOf(32)
+        private var built = false
+
+        public fun add(element: T): Builder<T> {
+            checkNotBuilt()
+            val tailSize = size - tailOffset(size)
+            if (tailSize < 32) {
+                tail[tailSize] = element
+                size++
+                return this
+            }
+
+            val tailNode = VectorNode(this, tail)
+            tail = arrayOfNulls<Any>(32)
+            tail[0] = element
+            if ((size ushr 5) > (1 shl shift)) {
+                root = newRoot(this, root, newPath(this, shift, tailNode))
+                shift += 5
+            }
+            else {
+                root = pushTail(this, size, shift, root, tailNode)
+            }
+            size++
+            return this
+        }
+
+        public fun set(index: Int, element: T): Builder<T> {
+            checkNotBuilt()
+            if (index < 0 || index >= size) throw IndexOutOfBoundsException("Index: " + index + ", size: " + size)
+            if (index >= tailOffset(size)) {
+                tail[index and 31] = element
+            }
+            else {
+                root = setInTree(this, shift, root, index, element)
+            }
+            return this
+        }
+
+        public fun build(): PersistentVector<T> {
+            checkNotBuilt()
+            built = true
+            if (size == 0) return empty()
+            return PersistentVector(size, shift, root, tail.copyOf(size - tailOffset(size)))
+        }
+
+        private fun checkNotBuilt() {
+            check(!built, "The vector has already been built")
+        }
+    }
+
+    class object {
+        private val EMPTY = PersistentVector<Any?>(0, 5, VectorNode(null, arrayOfNulls<Any>(32)), arrayOfNulls<Any>(0))
+
+        public fun <T> empty(): PersistentVector<T> = EMPTY as PersistentVector<T>
+
+        public fun <T> of(vararg elements: T): PersistentVector<T> {
+            val builder = builder<T>()
+            for (element in elements) {
+                builder.add(element)
+            }
+            return builder.build()
+        }
+
+        public fun <T> builder(): Builder<T> = Builder(empty<T>())
+    }
+}
+
+/**
+ * Returns a builder which starts with the elements of this vector
+ */
+public fun <T> PersistentVector<T>.toBuilder(): PersistentVector.Builder<T> = PersistentVector.Builder(this)
+
+// Index of the first element in the tail
+private fun tailOffset(size: Int): Int = if (size < 32) 0 else ((size - 1) ushr 5) shl 5
+
+// Returns the node itself if it may be changed in place by the owner, a copy otherwise
+private fun editable(owner: Any?, node: VectorNode): VectorNode {
+    return if (owner != null && node.owner === owner) node else VectorNode(owner, node.array.copyOf())
+}
+
+private fun newRoot(owner: Any?, oldRoot: VectorNode, path: VectorNode): VectorNode {
+    val root = VectorNode(owner, arrayOfNulls<Any>(32))
+    root.array[0] = oldRoot
+    root.array[1] = path
+    return root
+}
+
+// Returns a chain of nodes from the given level down to the leaf
+private fun newPath(owner: Any?, level: Int, leaf: VectorNode): VectorNode {
+    if (level == 0) return leaf
+    val node = VectorNode(owner, arrayOfNulls<Any>(32))
+    node.array[0] = newPath(owner, level - 5, leaf)
+    return node
+}
+
+// Appends the full tail of a vector of the given size to the tree as its last leaf
+private fun pushTail(owner: Any?, size: Int, level: Int, parent: VectorNode, tailNode: VectorNode): VectorNode {
+    val index = ((size - 1) ushr level) and 31
+    val child = parent.array[index] as VectorNode?
+    val result = editable(owner, parent)
+    result.array[index] = when {
+        level == 5 -> tailNode
+        child != null -> pushTail(owner, size, level - 5, child, tailNode)
+        else -> newPath(owner, level - 5, tailNode)
+    }
+    return result
+}
+
+// Removes the last leaf from the tree of a vector of the given size, returns null if the node becomes empty
+private fun popTail(owner: Any?, size: Int, level: Int, node: VectorNode): VectorNode? {
+    val index = ((size - 2) ushr level) and 31
+    if (level > 5) {
+        val child = popTail(owner, size, level - 5, node.array[index] as VectorNode)
+        if (child == null && index == 0) return null
+        val result = editable(owner, node)
+        result.array[index] = child
+        return result
+    }
+    if (index == 0) return null
+    val result = editable(owner, node)
+    result.array[index] = null
+    return result
+}
+
+private fun setInTree(owner: Any?, level: Int, node: VectorNode, index: Int, element: Any?): VectorNode {
+    val result = editable(owner, node)
+    if (level == 0) {
+        result.array[index and 31] = element
+    }
+    else {
+        val childIndex = (index ushr level) and 31
+        result.array[childIndex] = setInTree(owner, level - 5, node.array[childIndex] as VectorNode, index, element)
+    }
+    return result
+}
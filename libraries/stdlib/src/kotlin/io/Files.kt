@@ -1,10 +1,19 @@
 package kotlin.io
 
 import java.io.*
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.channels.FileChannel
 import java.nio.charset.*
 import java.util.NoSuchElementException
 import java.util.ArrayList
 import java.net.URL
+import kotlin.support.AbstractIterator
+
+/**
+ * The size of the blocks in which files are mapped into memory
+ */
+public val defaultMappedBlockSize: Long = (64 * 1024 * 1024).toLong()
 
 
 /**
@@ -149,9 +158,36 @@ public fun File.appendText(text: String, encoding: String = Charset.defaultChars
 }
 
 /**
- * Copies this file to the given output file, returning the number of bytes copied
+ * Copies this file to the given output file through file channels, returning the number of bytes copied.
+ * The operating system may transfer the bytes without copying them through the memory of the process
  */
-public fun File.copyTo(file: File, bufferSize: Int = defaultBufferSize): Long {
+public fun File.copyTo(file: File): Long {
+    file.directory.mkdirs()
+    val input = FileInputStream(this).getChannel()!!
+    try {
+        val output = FileOutputStream(file).getChannel()!!
+        try {
+            val size = input.size()
+            var position = 0.toLong()
+            while (position < size) {
+                val transferred = input.transferTo(position, size - position, output)
+                // The file has been truncated while being copied
+                if (transferred <= 0) break
+                position += transferred
+            }
+            return position
+        } finally {
+            output.close()
+        }
+    } finally {
+        input.close()
+    }
+}
+
+/**
+ * Copies this file to the given output file through a buffer of the given size, returning the number of bytes copied
+ */
+public fun File.copyTo(file: File, bufferSize: Int): Long {
     file.directory.mkdirs()
     val input = FileInputStream(this)
     return input.use<FileInputStream,Long>{
@@ -186,6 +222,117 @@ fun File.forEachBlock(closure : (ByteArray, Int) -> Unit) : Unit {
     }
 }
 
+/**
+ * Maps the file into memory by blocks of the given size and calls closure for each block, so that the content of the file
+ * is not copied into byte arrays. The buffers are read-only; a buffer stays mapped until it's garbage collected, so don't
+ * keep the buffers after the closure returns.
+ *
+ * You can use this function for huge files
+ */
+public fun File.forEachMappedBlock(blockSize: Long = defaultMappedBlockSize, closure: (ByteBuffer) -> Unit): Unit {
+    require(blockSize > 0, "Block size must be positive: " + blockSize)
+    val channel = FileInputStream(this).getChannel()!!
+    try {
+        val size = channel.size()
+        var position = 0.toLong()
+        while (position < size) {
+            val length = Math.min(blockSize, size - position)
+            closure(channel.map(FileChannel.MapMode.READ_ONLY, position, length)!!)
+            position += length
+        }
+    } finally {
+        channel.close()
+    }
+}
+
+/**
+ * Returns an iterator over the lines of the file, which decodes the lines right from the file mapped into memory by blocks,
+ * without reading the bytes into intermediate buffers. Lines are terminated by '\n', '\r' or "\r\n", like in [[BufferedReader]].
+ * Malformed input is replaced. The file is not kept open between the blocks, so an iterator which is not read to the end
+ * doesn't need to be closed.
+ *
+ * You can use this function for huge files
+ */
+public fun File.lineIterator(charset: String = "UTF-8", blockSize: Long = defaultMappedBlockSize): Iterator<String> {
+    // A block must hold at least one whole character
+    require(blockSize >= 16, "Block size is too small: " + blockSize)
+    return MappedLineIterator(this, Charset.forName(charset)!!, blockSize)
+}
+
+private class MappedLineIterator(val file: File, charset: Charset, val blockSize: Long) : AbstractIterator<String>() {
+    private val decoder = charset.newDecoder()!!.onMalformedInput(CodingErrorAction.REPLACE)!!.onUnmappableCharacter(CodingErrorAction.REPLACE)!!
+    private val size = file.length()
+    // Decoded characters which are not taken into lines yet
+    private val chars = CharBuffer.wrap(CharArray(8192), 0, 0)!!
+    private val line = StringBuilder()
+    private var blockStart = 0.toLong()
+    private var bytes = map(0.toLong())
+    private var finished = false
+    private var skipLineFeed = false
+
+    override protected fun computeNext(): Unit {
+        while (chars.hasRemaining() || decodeMore()) {
+            while (chars.hasRemaining()) {
+                val c = chars.get()
+                val afterCarriageReturn = skipLineFeed
+                skipLineFeed = false
+                if (c == '\r' || c == '\n' && !afterCarriageReturn) {
+                    skipLineFeed = c == '\r'
+                    setNext(takeLine())
+                    return
+                }
+                if (c != '\n') {
+                    line.append(c)
+                }
+            }
+        }
+        if (line.length() > 0) {
+            setNext(takeLine())
+        }
+        else {
+            done()
+        }
+    }
+
+    private fun takeLine(): String {
+        val result = line.toString()
+        line.setLength(0)
+        return result
+    }
+
+    // Decodes the next portion of the file, returns false at the end of the file
+    private fun decodeMore(): Boolean {
+        chars.clear()
+        while (!finished && chars.position() == 0) {
+            val endOfInput = blockStart + bytes.limit() == size
+            val result = decoder.decode(bytes, chars, endOfInput)!!
+            if (result.isUnderflow()) {
+                if (endOfInput) {
+                    decoder.flush(chars)
+                    finished = true
+                }
+                else {
+                    // The rest of the block may be an incomplete character, it's decoded together with the next block
+                    bytes = map(blockStart + bytes.position())
+                }
+            }
+        }
+        chars.flip()
+        return chars.hasRemaining()
+    }
+
+    private fun map(start: Long): ByteBuffer {
+        blockStart = start
+        val channel = FileInputStream(file).getChannel()!!
+        try {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(blockSize, size - start))!!
+        } finally {
+            channel.close()
+        }
+    }
+}
+
 /**
  * Reads file line by line. Default charset is UTF-8.
  *
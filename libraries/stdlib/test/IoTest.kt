@@ -147,4 +147,47 @@ class IoTest(){
         file.deleteOnExit()
     }
 
+    test fun testMappedLineIterator() {
+        val file = File.createTempFile("temp", System.nanoTime().toString())
+        file.writeText("Hello\r\nW\u00f6rld\rLine\n\nS\u00f6me text with \u00fcml\u00e4uts\r\nLast", "UTF-8")
+
+        // Small blocks split the lines and the two-byte characters between the blocks
+        for (blockSize in 16..60) {
+            assertEquals(arrayListOf("Hello", "W\u00f6rld", "Line", "", "S\u00f6me text with \u00fcml\u00e4uts", "Last"),
+                         file.lineIterator("UTF-8", blockSize.toLong()).toArrayList())
+        }
+        file.writeText("")
+        assertFalse(file.lineIterator().hasNext())
+        file.deleteOnExit()
+    }
+
+    test fun testForEachMappedBlock() {
+        val file = File.createTempFile("temp", System.nanoTime().toString())
+        val bytes = ByteArray(1000)
+        for (i in 0..bytes.size - 1) bytes[i] = i.toByte()
+        file.writeBytes(bytes)
+
+        val result = ByteArrayOutputStream()
+        file.forEachMappedBlock(300.toLong()) {
+            assertTrue(it.remaining() <= 300)
+            while (it.hasRemaining()) {
+                result.write(it.get().toInt())
+            }
+        }
+        assertTrue(Arrays.equals(bytes, result.toByteArray()))
+        file.deleteOnExit()
+    }
+
+    test fun testCopyTo() {
+        val file = File.createTempFile("temp", System.nanoTime().toString())
+        file.writeText("Hello\nWorld")
+        val copy = File.createTempFile("temp", System.nanoTime().toString())
+
+        assertEquals(11.toLong(), file.copyTo(copy))
+        assertEquals("Hello\nWorld", copy.readText())
+        assertEquals(11.toLong(), file.copyTo(copy, 4))
+        assertEquals("Hello\nWorld", copy.readText())
+        file.deleteOnExit()
+        copy.deleteOnExit()
+    }
 }
@@ -0,0 +1,113 @@
+package test.collection
+
+import kotlin.test.*
+
+import junit.framework.TestCase
+import java.util.Random
+
+class PrimitiveCollectionsTest() : TestCase() {
+
+    fun testList() {
+        val list = IntList(2)
+        for (i in 0..99) {
+            list.add(i * 3)
+        }
+        assertEquals(100, list.size())
+        assertEquals(30, list[10])
+        assertEquals(10, list.indexOf(30))
+        assertFalse(list.contains(31))
+
+        list[10] = 31
+        assertTrue(list.contains(31))
+        assertEquals(297, list.removeLast())
+        assertEquals(99, list.toArray().size)
+
+        list.clear()
+        assertTrue(list.isEmpty())
+        fails {
+            list[0]
+        }
+    }
+
+    fun testListIterator() {
+        val list = LongList()
+        list.addAll(longArray(1, 2, 3))
+        var sum = 0.toLong()
+        for (element in list) {
+            sum += element
+        }
+        assertEquals(6.toLong(), sum)
+        assertEquals("[1, 2, 3]", list.toString())
+    }
+
+    fun testSet() {
+        val set = IntSet()
+        assertTrue(set.add(0))
+        assertTrue(set.add(-1))
+        assertFalse(set.add(0))
+        assertEquals(2, set.size())
+        assertTrue(set.contains(0))
+        assertTrue(set.remove(0))
+        assertFalse(set.contains(0))
+        assertTrue(set.contains(-1))
+    }
+
+    fun testSetAgainstHashSet() {
+        val random = Random(17)
+        val set = LongSet()
+        val expected = java.util.HashSet<Long>()
+        for (i in 0..9999) {
+            // A narrow range, so that there are a lot of collisions and removals of present values
+            val value = random.nextInt(500).toLong() * 1024
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value))
+            }
+            else {
+                assertEquals(expected.remove(value), set.remove(value))
+            }
+            assertEquals(expected.size(), set.size())
+        }
+        for (value in expected) {
+            assertTrue(set.contains(value))
+        }
+        var count = 0
+        for (value in set) {
+            assertTrue(expected.contains(value))
+            count++
+        }
+        assertEquals(expected.size(), count)
+    }
+
+    fun testMap() {
+        val map = IntDoubleMap()
+        for (i in 0..999) {
+            map[i] = i / 2.0
+        }
+        assertEquals(1000, map.size())
+        assertEquals(50.0, map[100])
+        assertEquals(-1.0, map.getOrDefault(1000, -1.0))
+
+        map[100] = 0.5
+        assertEquals(0.5, map[100])
+        assertEquals(1000, map.size())
+
+        for (i in 0..999 step 2) {
+            assertTrue(map.remove(i))
+        }
+        assertEquals(500, map.size())
+        assertFalse(map.containsKey(100))
+        assertEquals(50.5, map[101])
+        fails {
+            map[100]
+        }
+    }
+
+    fun testArrayOperations() {
+        val array = intArray(1, 2, 3, 4, 5, 2)
+        assertEquals("[2, 4, 2]", array.filterTo(IntList()) { it % 2 == 0 }.toString())
+        assertEquals("[1, 3, 5]", array.filterNotTo(IntList()) { it % 2 == 0 }.toString())
+        assertEquals("[0.5, 1.0, 1.5, 2.0, 2.5, 1.0]", array.mapTo(DoubleList()) { it / 2.0 }.toString())
+        assertEquals(5, array.toIntSet().size())
+        assertEquals(6, array.toIntList().size())
+    }
+}
@@ -0,0 +1,91 @@
+package concurrent
+
+import kotlin.concurrent.*
+import kotlin.test.*
+
+import org.junit.Test as test
+
+import java.util.ArrayList
+import java.util.Random
+import java.util.concurrent.atomic.AtomicLong
+
+class ParallelTest {
+    // Large enough to be split into several chunks
+    val size = 100000
+
+    test fun mapAndFilterKeepTheOrder() {
+        val list = ArrayList<Int>()
+        for (i in 0..size - 1) list.add(i)
+
+        val mapped = list.parallelMap { it * 2 }
+        assertEquals(size, mapped.size())
+        for (i in 0..size - 1) assertEquals(i * 2, mapped[i])
+
+        val filtered = list.parallelFilter { it % 3 == 0 }
+        assertEquals(list.filter { it % 3 == 0 }, filtered)
+    }
+
+    test fun foldAndReduce() {
+        val array = LongArray(size)
+        for (i in 0..size - 1) array[i] = i.toLong()
+        val expected = size.toLong() * (size - 1) / 2
+
+        assertEquals(expected, array.parallelReduce { a, b -> a + b })
+
+        val sum = AtomicLong()
+        array.parallelForEach { sum.addAndGet(it) }
+        assertEquals(expected, sum.get())
+
+        val strings = Array<String>(size) { it.toString() }
+        assertEquals(strings.fold(0) { length, s -> length + s.length() },
+                     strings.parallelFold(0, { length, s -> length + s.length() }, { a, b -> a + b }))
+
+        fails {
+            IntArray(0).parallelReduce { a, b -> a + b }
+        }
+    }
+
+    test fun groupByKeepsTheOrderOfElements() {
+        val strings = Array<String>(size) { it.toString() }
+        val groups = strings.parallelGroupBy { it.length() }
+        assertEquals(strings.groupBy { it.length() }, groups)
+        assertEquals(arrayList(1, 2, 3, 4, 5), groups.keySet().toList())
+    }
+
+    test fun sort() {
+        val random = Random(42)
+        val ints = IntArray(size)
+        val doubles = DoubleArray(size)
+        for (i in 0..size - 1) {
+            ints[i] = random.nextInt()
+            doubles[i] = if (i % 1000 == 0) java.lang.Double.NaN else random.nextGaussian()
+        }
+
+        val expectedInts = ints.copyOf()
+        expectedInts.sort()
+        ints.parallelSort()
+        assertTrue(java.util.Arrays.equals(expectedInts, ints))
+
+        val expectedDoubles = doubles.copyOf()
+        expectedDoubles.sort()
+        doubles.parallelSort()
+        assertTrue(java.util.Arrays.equals(expectedDoubles, doubles))
+    }
+
+    test fun sortIsStable() {
+        val pairs = Array<Pair<Int, Int>>(size) { Pair(it % 10, it) }
+        pairs.parallelSort(comparator<Pair<Int, Int>> { a, b -> a.first - b.first })
+        for (i in 1..size - 1) {
+            val previous = pairs[i - 1]
+            val current = pairs[i]
+            assertTrue(previous.first < current.first || previous.first == current.first && previous.second < current.second)
+        }
+    }
+
+    test fun nestedOperations() {
+        val list = ArrayList<Int>()
+        for (i in 0..size - 1) list.add(i % 100)
+        val sums = list.parallelMap { n -> IntArray(n).parallelMap { it + 1 }.size }
+        assertEquals(list, sums)
+    }
+}
@@ -0,0 +1,160 @@
+package test.concurrent
+
+import kotlin.concurrent.*
+import kotlin.test.*
+
+import junit.framework.TestCase
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.Random
+
+class PersistentCollectionsTest() : TestCase() {
+
+    fun testVectorAddAndGet() {
+        var vector = PersistentVector.empty<Int>()
+        val versions = ArrayList<PersistentVector<Int>>()
+        // Enough elements for a tree of three levels
+        for (i in 0..40000) {
+            versions.add(vector)
+            vector = vector.add(i)
+        }
+        assertEquals(40001, vector.size)
+        for (i in 0..vector.size - 1) {
+            assertEquals(i, vector[i])
+        }
+        // The old versions are not affected
+        assertEquals(1000, versions[1000].size)
+        assertEquals(999, versions[1000][999])
+
+        var expected = 0
+        for (element in vector) {
+            assertEquals(expected++, element)
+        }
+        fails {
+            vector[40001]
+        }
+    }
+
+    fun testVectorSetAndRemoveLast() {
+        val builder = PersistentVector.builder<String>()
+        for (i in 0..2000) {
+            builder.add(i.toString())
+        }
+        val vector = builder.build()
+        fails {
+            builder.add("")
+        }
+
+        val changed = vector.set(100, "x").set(2000, "y")
+        assertEquals("x", changed[100])
+        assertEquals("y", changed[2000])
+        assertEquals("100", vector[100])
+
+        var shrinking = changed
+        for (i in 2000 downTo 1) {
+            shrinking = shrinking.removeLast()
+            assertEquals(i, shrinking.size)
+            assertEquals(if (i == 101) "x" else (i - 1).toString(), shrinking[i - 1])
+        }
+        assertEquals(PersistentVector.of("0"), shrinking)
+        assertTrue(shrinking.removeLast().empty)
+    }
+
+    fun testVectorBuilderDoesNotChangeTheOriginal() {
+        val vector = PersistentVector.of(1, 2, 3)
+        val builder = vector.toBuilder()
+        builder.set(0, 10)
+        for (i in 0..100) builder.add(i)
+        val built = builder.build()
+        assertEquals(PersistentVector.of(1, 2, 3), vector)
+        assertEquals(10, built[0])
+        assertEquals(104, built.size)
+    }
+
+    fun testMapAgainstHashMap() {
+        val random = Random(17)
+        var map = PersistentHashMap.empty<Int, Int>()
+        val expected = HashMap<Int, Int>()
+        for (i in 0..20000) {
+            val key = random.nextInt(3000)
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key)
+                expected.remove(key)
+            }
+            else {
+                map = map.put(key, i)
+                expected.put(key, i)
+            }
+            assertEquals(expected.size(), map.size)
+        }
+        for (key in 0..2999) {
+            assertEquals(expected.get(key), map[key])
+            assertEquals(expected.containsKey(key), map.containsKey(key))
+        }
+        var count = 0
+        for (entry in map) {
+            assertEquals(expected.get(entry.first), entry.second)
+            count++
+        }
+        assertEquals(expected.size(), count)
+    }
+
+    fun testMapWithCollidingKeys() {
+        // "Aa" and "BB" have the same hash code
+        val map = PersistentHashMap.of(Pair("Aa", 1), Pair("BB", 2), Pair("C", 3), Pair(null, 4))
+        assertEquals(4, map.size)
+        assertEquals(1, map["Aa"])
+        assertEquals(2, map["BB"])
+        assertEquals(4, map[null])
+
+        val removed = map.remove("Aa")
+        assertEquals(3, removed.size)
+        assertNull(removed["Aa"])
+        assertEquals(2, removed["BB"])
+        assertEquals(map, removed.put("Aa", 1))
+    }
+
+    fun testMapBuilder() {
+        val original = PersistentHashMap.of(Pair(1, "a"))
+        val builder = original.toBuilder()
+        for (i in 0..1000) builder.put(i, i.toString())
+        builder.remove(500)
+        val map = builder.build()
+        assertEquals(1000, map.size)
+        assertEquals("1", map[1])
+        assertFalse(map.containsKey(500))
+        assertEquals(1, original.size)
+        assertEquals("a", original[1])
+    }
+
+    fun testSet() {
+        val set = PersistentHashSet.of("a", "b", "c")
+        assertTrue(set.contains("a"))
+        assertEquals(3, set.size)
+        assertTrue(set.add("a") === set)
+
+        val smaller = set.remove("b")
+        assertFalse(smaller.contains("b"))
+        assertTrue(set.contains("b"))
+        assertEquals(PersistentHashSet.of("c", "a"), smaller)
+    }
+
+    fun testQueue() {
+        var queue = FunctionalQueue<Int>()
+        for (i in 0..9) queue = queue.add(i)
+        for (i in 0..4) {
+            assertEquals(i, queue.head)
+            queue = queue.tail
+        }
+        for (i in 10..14) queue = queue.add(i)
+        for (i in 5..14) {
+            val (first, rest) = queue.removeFirst()
+            assertEquals(i, first)
+            queue = rest
+        }
+        assertTrue(queue.empty)
+        fails {
+            queue.head
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package iterators
 
 import kotlin.test.assertEquals
+import kotlin.test.assertTrue
 import org.junit.Test as test
 import kotlin.test.fails
 
@@ -22,6 +23,24 @@ class IteratorsTest {
         assertEquals(arrayList(13, 21, 34, 55, 89).fold(0, sum), fibonacci().filter { it > 10 }.take(5).fold(0, sum))
     }
 
+    test fun chainedOperations() {
+        val chained = fibonacci().filter { it % 2 == 0 }.map { it / 2 }.filterNot { it == 0 }.takeWhile { it < 100 }
+        assertEquals(arrayList(1, 4, 17, 72), chained.toList())
+    }
+
+    test fun takeWhileStopsPullingTheSource() {
+        var pulled = 0
+        val source = iterate<Int> { pulled++ }
+        assertEquals(arrayList(0, 2, 4), source.filter { it % 2 == 0 }.takeWhile { it < 5 }.toList())
+        assertEquals(7, pulled)
+    }
+
+    test fun operationsOnAStartedPipelineKeepItsCurrentElement() {
+        val evens = fibonacci().filter { it % 2 == 0 }
+        assertTrue(evens.hasNext())
+        assertEquals(arrayList(0, 2, 8), evens.map { it / 2 }.map { it * 2 }.take(3).toList())
+    }
+
     test fun takeExtractsTheFirstNElements() {
         assertEquals(arrayList(0, 1, 1, 2, 3, 5, 8, 13, 21, 34), fibonacci().take(10).toList())
     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2010-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jetbrains.kotlin.maven;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Remembers which dependency jars contain Kotlin external annotations, so that every jar is scanned at most once
+ * per its content: entries are keyed by path, and are valid while the timestamp and size of the jar stay the same.
+ *
+ * The index is shared by all modules of a Maven session and persisted to a file between builds. The file is replaced
+ * as a whole, so that concurrent builds never see it half-written, and entries for jars that no longer exist are dropped.
+ */
+class AnnotationsIndex {
+    private static final Map<File, AnnotationsIndex> indices = new HashMap<File, AnnotationsIndex>();
+
+    private final File indexFile;
+    private final Properties entries = new Properties();
+    private boolean modified;
+
+    private AnnotationsIndex(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    static synchronized AnnotationsIndex getInstance(File indexFile, Log log) {
+        AnnotationsIndex index = indices.get(indexFile);
+        if (index == null) {
+            index = new AnnotationsIndex(indexFile);
+            index.load(log);
+            indices.put(indexFile, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns cached scan result for the jar, or null if the jar was never scanned or has changed since
+     */
+    synchronized Boolean containsAnnotations(File jar) {
+        String value = entries.getProperty(jar.getAbsolutePath());
+        if (value == null) return null;
+
+        String[] parts = value.split(":");
+        if (parts.length != 3 || !parts[0].equals(String.valueOf(jar.lastModified())) || !parts[1].equals(String.valueOf(jar.length()))) {
+            return null;
+        }
+        return Boolean.valueOf(parts[2]);
+    }
+
+    synchronized void put(File jar, boolean containsAnnotations) {
+        entries.setProperty(jar.getAbsolutePath(), jar.lastModified() + ":" + jar.length() + ":" + containsAnnotations);
+        modified = true;
+    }
+
+    synchronized void save(Log log) {
+        if (!modified) return;
+
+        File parent = indexFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            log.warn("Could not create directory for kotlin annotations index: " + parent);
+            return;
+        }
+
+        File temporaryFile;
+        try {
+            temporaryFile = File.createTempFile(indexFile.getName(), ".tmp", parent);
+        }
+        catch (IOException e) {
+            log.warn("Error writing kotlin annotations index: " + indexFile, e);
+            return;
+        }
+
+        OutputStream stream = null;
+        try {
+            stream = new BufferedOutputStream(new FileOutputStream(temporaryFile));
+            entries.store(stream, "Kotlin external annotations index: path = timestamp:size:containsAnnotations");
+            stream.close();
+            stream = null;
+
+            // renameTo doesn't replace an existing file on some platforms
+            if (!temporaryFile.renameTo(indexFile) && !(indexFile.delete() && temporaryFile.renameTo(indexFile))) {
+                throw new IOException("Could not rename " + temporaryFile + " to " + indexFile);
+            }
+            modified = false;
+        }
+        catch (IOException e) {
+            log.warn("Error writing kotlin annotations index: " + indexFile, e);
+        }
+        finally {
+            close(stream, log);
+            if (temporaryFile.exists() && !temporaryFile.delete()) {
+                log.warn("Could not delete temporary file: " + temporaryFile);
+            }
+        }
+    }
+
+    private void load(Log log) {
+        if (!indexFile.isFile()) return;
+
+        InputStream stream = null;
+        try {
+            stream = new BufferedInputStream(new FileInputStream(indexFile));
+            entries.load(stream);
+            removeMissingJars();
+        }
+        catch (IOException e) {
+            log.warn("Error reading kotlin annotations index: " + indexFile, e);
+            entries.clear();
+        }
+        finally {
+            close(stream, log);
+        }
+    }
+
+    private void removeMissingJars() {
+        for (String path : entries.stringPropertyNames()) {
+            if (!new File(path).isFile()) {
+                entries.remove(path);
+                modified = true;
+            }
+        }
+    }
+
+    private static void close(Closeable closeable, Log log) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            }
+            catch (IOException e) {
+                log.warn("Error closing: " + closeable, e);
+            }
+        }
+    }
+}
@@ -100,6 +100,13 @@ public abstract class KotlinCompileMojoBase extends AbstractMojo {
      */
     public boolean scanForAnnotations;
 
+    /**
+     * The file used to remember which dependencies contain Kotlin annotations, so that unchanged jars are not rescanned
+     *
+     * @parameter default-value="${settings.localRepository}/.kotlin/annotations-index.properties"
+     */
+    public File annotationsIndexFile;
+
     /**
      * Project classpath.
      *
@@ -349,11 +356,12 @@ public abstract class KotlinCompileMojoBase extends AbstractMojo {
 
     protected List<String> scanAnnotations(Log log) {
         final List<String> annotations = new ArrayList<String>();
+        final AnnotationsIndex index = annotationsIndexFile != null ? AnnotationsIndex.getInstance(annotationsIndexFile, log) : null;
 
         final Set<Artifact> artifacts = project.getArtifacts();
         for (Artifact artifact : artifacts) {
             final File file = artifact.getFile();
-            if (containsAnnotations(file, log)) {
+            if (containsAnnotations(file, index, log)) {
                 log.info("Discovered kotlin annotations in: " + file);
                 try {
                     annotations.add(file.getCanonicalPath());
@@ -364,14 +372,45 @@ public abstract class KotlinCompileMojoBase extends AbstractMojo {
             }
         }
 
+        if (index != null) {
+            index.save(log);
+        }
+
         return annotations;
     }
 
+    private boolean containsAnnotations(File file, AnnotationsIndex index, Log log) {
+        if (index == null || !file.isFile()) {
+            return containsAnnotations(file, log);
+        }
+
+        Boolean cached = index.containsAnnotations(file);
+        if (cached != null) {
+            return cached;
+        }
+
+        Boolean result = scanForAnnotations(file, log);
+        if (result == null) {
+            // Not cached: the jar could not be read this time, it may be readable in the next build
+            return false;
+        }
+        index.put(file, result);
+        return result;
+    }
+
     protected boolean containsAnnotations(File file, Log log) {
+        return Boolean.TRUE.equals(scanForAnnotations(file, log));
+    }
+
+    /**
+     * Returns null if the jar could not be read
+     */
+    private static Boolean scanForAnnotations(File file, Log log) {
         log.debug("Scanning for kotlin annotations in " + file);
 
         ZipFile zipFile = null;
         try {
+            // ZipFile reads only the central directory to enumerate entries, no entry data is inflated here
             zipFile = new ZipFile(file);
 
             final Enumeration<? extends ZipEntry> entries = zipFile.entries();
@@ -384,6 +423,7 @@ public abstract class KotlinCompileMojoBase extends AbstractMojo {
         }
         catch (IOException e) {
             log.warn("Error reading contents of jar: " + file, e);
+            return null;
         }
         finally {
             if (zipFile != null) {
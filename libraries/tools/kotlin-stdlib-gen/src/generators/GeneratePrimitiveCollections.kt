@@ -0,0 +1,467 @@
+package generators
+
+import java.io.File
+import java.io.FileWriter
+import java.io.PrintWriter
+
+/**
+ * Generates growable lists and open-addressing hash sets and maps of unboxed values, and the operations on primitive
+ * arrays which put their results into them.
+ */
+private fun generatePrimitiveCollections(outputFile: File, header: String) {
+    val elementTypes = array("Int", "Long", "Double")
+    // Floating point keys are not supported: hashing them would need a decision on -0.0 and NaN
+    val keyTypes = array("Int", "Long")
+
+    fun hashFunctionBody(type: String, parameter: String): String {
+        return when (type) {
+            "Int" -> "val h = $parameter * -1640531527\n        return h xor (h ushr 16)"
+            "Long" -> "val h = $parameter * -7046029254386353131\n        return (h xor (h ushr 32)).toInt()"
+            else -> throw IllegalArgumentException("Unsupported key type: $type")
+        }
+    }
+
+    fun generateList(writer: PrintWriter, t: String) {
+        writer.println("""
+/**
+ * A growable list of unboxed ${t} values backed by a primitive array
+ */
+public class ${t}List(initialCapacity: Int = 10) {
+    private var elements = ${t}Array(initialCapacity)
+    private var length = 0
+
+    public fun size(): Int = length
+
+    public fun isEmpty(): Boolean = length == 0
+
+    public fun get(index: Int): ${t} {
+        checkIndex(index)
+        return elements[index]
+    }
+
+    public fun set(index: Int, value: ${t}): ${t} {
+        checkIndex(index)
+        val old = elements[index]
+        elements[index] = value
+        return old
+    }
+
+    public fun add(value: ${t}) {
+        ensureCapacity(length + 1)
+        elements[length++] = value
+    }
+
+    public fun addAll(values: ${t}Array) {
+        ensureCapacity(length + values.size)
+        System.arraycopy(values, 0, elements, length, values.size)
+        length += values.size
+    }
+
+    public fun removeLast(): ${t} {
+        if (length == 0) throw NoSuchElementException("List is empty")
+        return elements[--length]
+    }
+
+    public fun contains(value: ${t}): Boolean = indexOf(value) >= 0
+
+    public fun indexOf(value: ${t}): Int {
+        for (i in 0..length - 1) {
+            if (elements[i] == value) return i
+        }
+        return -1
+    }
+
+    public fun clear() {
+        length = 0
+    }
+
+    public fun ensureCapacity(capacity: Int) {
+        if (capacity > elements.size) {
+            elements = elements.copyOf(Math.max(capacity, elements.size * 2 + 1))
+        }
+    }
+
+    public fun toArray(): ${t}Array = elements.copyOf(length)
+
+    public fun iterator(): ${t}Iterator = object : ${t}Iterator() {
+        private var index = 0
+
+        override fun hasNext(): Boolean = index < length
+
+        override fun next${t}(): ${t} {
+            if (index >= length) throw NoSuchElementException()
+            return elements[index++]
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (i in 0..length - 1) {
+            if (i > 0) builder.append(", ")
+            builder.append(elements[i])
+        }
+        return builder.append("]").toString()
+    }
+
+    private fun checkIndex(index: Int) {
+        if (index < 0 || index >= length) throw IndexOutOfBoundsException("Index: " + index + ", size: " + length)
+    }
+}""")
+    }
+
+    fun generateSet(writer: PrintWriter, t: String) {
+        val hash = hashFunctionBody(t, "value")
+        writer.println("""
+/**
+ * A set of unboxed ${t} values stored in an open-addressing hash table with linear probing
+ */
+public class ${t}Set(expectedSize: Int = 8) {
+    private var keys = ${t}Array(primitiveHashTableSize(expectedSize))
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun contains(value: ${t}): Boolean = occupied[slot(value)]
+
+    public fun add(value: ${t}): Boolean {
+        val i = slot(value)
+        if (occupied[i]) return false
+        keys[i] = value
+        occupied[i] = true
+        if (++count > keys.size / 4 * 3) rehash()
+        return true
+    }
+
+    public fun remove(value: ${t}): Boolean {
+        val i = slot(value)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun toArray(): ${t}Array {
+        val result = ${t}Array(count)
+        var j = 0
+        for (i in 0..keys.size - 1) {
+            if (occupied[i]) result[j++] = keys[i]
+        }
+        return result
+    }
+
+    public fun iterator(): ${t}Iterator = object : ${t}Iterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun next${t}(): ${t} {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("[")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i])
+        }
+        return builder.append("]").toString()
+    }
+
+    // The slot containing the value, or the free slot where it should be put
+    private fun slot(value: ${t}): Int {
+        val mask = keys.size - 1
+        var i = hash(value) and mask
+        while (occupied[i] && keys[i] != value) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its value
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldOccupied = occupied
+        keys = ${t}Array(oldKeys.size * 2)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(value: ${t}): Int {
+        ${hash}
+    }
+}""")
+    }
+
+    fun generateMap(writer: PrintWriter, k: String, v: String) {
+        val hash = hashFunctionBody(k, "key")
+        writer.println("""
+/**
+ * A map from unboxed ${k} keys to unboxed ${v} values stored in an open-addressing hash table with linear probing
+ */
+public class ${k}${v}Map(expectedSize: Int = 8) {
+    private var keys = ${k}Array(primitiveHashTableSize(expectedSize))
+    private var values = ${v}Array(keys.size)
+    private var occupied = BooleanArray(keys.size)
+    private var count = 0
+
+    public fun size(): Int = count
+
+    public fun isEmpty(): Boolean = count == 0
+
+    public fun containsKey(key: ${k}): Boolean = occupied[slot(key)]
+
+    public fun get(key: ${k}): ${v} {
+        val i = slot(key)
+        if (!occupied[i]) throw NoSuchElementException("Key " + key + " is missing in the map")
+        return values[i]
+    }
+
+    public fun getOrDefault(key: ${k}, defaultValue: ${v}): ${v} {
+        val i = slot(key)
+        return if (occupied[i]) values[i] else defaultValue
+    }
+
+    public fun set(key: ${k}, value: ${v}) {
+        put(key, value)
+    }
+
+    public fun put(key: ${k}, value: ${v}) {
+        val i = slot(key)
+        values[i] = value
+        if (!occupied[i]) {
+            keys[i] = key
+            occupied[i] = true
+            if (++count > keys.size / 4 * 3) rehash()
+        }
+    }
+
+    public fun remove(key: ${k}): Boolean {
+        val i = slot(key)
+        if (!occupied[i]) return false
+        freeSlot(i)
+        return true
+    }
+
+    public fun clear() {
+        occupied.fill(false)
+        count = 0
+    }
+
+    public fun keyIterator(): ${k}Iterator = object : ${k}Iterator() {
+        private var index = nextOccupied(0)
+
+        override fun hasNext(): Boolean = index < keys.size
+
+        override fun next${k}(): ${k} {
+            if (index >= keys.size) throw NoSuchElementException()
+            val result = keys[index]
+            index = nextOccupied(index + 1)
+            return result
+        }
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder("{")
+        for (i in 0..keys.size - 1) {
+            if (!occupied[i]) continue
+            if (builder.length() > 1) builder.append(", ")
+            builder.append(keys[i]).append("=").append(values[i])
+        }
+        return builder.append("}").toString()
+    }
+
+    // The slot containing the key, or the free slot where it should be put
+    private fun slot(key: ${k}): Int {
+        val mask = keys.size - 1
+        var i = hash(key) and mask
+        while (occupied[i] && keys[i] != key) {
+            i = (i + 1) and mask
+        }
+        return i
+    }
+
+    private fun nextOccupied(from: Int): Int {
+        var i = from
+        while (i < keys.size && !occupied[i]) i++
+        return i
+    }
+
+    // Moves the entries following the slot back, so that no lookup stops at the freed slot before reaching its key
+    private fun freeSlot(slot: Int) {
+        val mask = keys.size - 1
+        var free = slot
+        var i = (slot + 1) and mask
+        while (occupied[i]) {
+            val home = hash(keys[i]) and mask
+            val canMove = if (free < i) home <= free || home > i else home <= free && home > i
+            if (canMove) {
+                keys[free] = keys[i]
+                values[free] = values[i]
+                free = i
+            }
+            i = (i + 1) and mask
+        }
+        occupied[free] = false
+        count--
+    }
+
+    private fun rehash() {
+        val oldKeys = keys
+        if (oldKeys.size >= maximumHashTableSize) throw IllegalStateException("Too many elements: " + count)
+        val oldValues = values
+        val oldOccupied = occupied
+        keys = ${k}Array(oldKeys.size * 2)
+        values = ${v}Array(keys.size)
+        occupied = BooleanArray(keys.size)
+        for (i in 0..oldKeys.size - 1) {
+            if (oldOccupied[i]) {
+                val j = slot(oldKeys[i])
+                keys[j] = oldKeys[i]
+                values[j] = oldValues[i]
+                occupied[j] = true
+            }
+        }
+    }
+
+    private fun hash(key: ${k}): Int {
+        ${hash}
+    }
+}""")
+    }
+
+    fun generateArrayOperations(writer: PrintWriter, t: String) {
+        writer.println("""
+/**
+ * Returns a new ${t}List containing all elements of this array
+ */
+public fun ${t}Array.to${t}List(): ${t}List {
+    val result = ${t}List(size)
+    result.addAll(this)
+    return result
+}
+
+/**
+ * Filters all elements which match the given predicate into the given list without boxing them
+ */
+public inline fun ${t}Array.filterTo(result: ${t}List, predicate: (${t}) -> Boolean) : ${t}List {
+    for (element in this) if (predicate(element)) result.add(element)
+    return result
+}
+
+/**
+ * Filters all elements which do not match the given predicate into the given list without boxing them
+ */
+public inline fun ${t}Array.filterNotTo(result: ${t}List, predicate: (${t}) -> Boolean) : ${t}List {
+    for (element in this) if (!predicate(element)) result.add(element)
+    return result
+}""")
+
+        if (t in keyTypes) {
+            writer.println("""
+/**
+ * Returns a new ${t}Set containing all distinct elements of this array
+ */
+public fun ${t}Array.to${t}Set(): ${t}Set {
+    val result = ${t}Set(size)
+    for (element in this) result.add(element)
+    return result
+}""")
+        }
+
+        for (r in elementTypes) {
+            writer.println("""
+/**
+ * Transforms each element of this array with the given *transform* function and
+ * adds each return value to the given list without boxing it
+ */
+public inline fun ${t}Array.mapTo(result: ${r}List, transform: (${t}) -> ${r}) : ${r}List {
+    for (item in this)
+        result.add(transform(item))
+    return result
+}""")
+        }
+    }
+
+    println("Writing $outputFile")
+
+    outputFile.getParentFile()?.mkdirs()
+    val writer = PrintWriter(FileWriter(outputFile))
+    try {
+        writer.println(header)
+
+        writer.println("""
+$COMMON_AUTOGENERATED_WARNING
+""")
+        writer.println("import java.util.NoSuchElementException")
+
+        for (t in elementTypes) {
+            generateList(writer, t)
+        }
+        for (t in keyTypes) {
+            generateSet(writer, t)
+        }
+        for (k in keyTypes) {
+            for (v in elementTypes) {
+                generateMap(writer, k, v)
+            }
+        }
+
+        writer.println("""
+// The largest power of two which is a valid array size
+private val maximumHashTableSize = 1 shl 30
+
+private fun primitiveHashTableSize(expectedSize: Int): Int {
+    var size = 8
+    while (size / 4 * 3 < expectedSize && size < maximumHashTableSize) size *= 2
+    return size
+}""")
+
+        for (t in elementTypes) {
+            generateArrayOperations(writer, t)
+        }
+    } finally {
+        writer.close()
+    }
+}
@@ -63,7 +63,7 @@ fun collections() {
 
         Iterators.returns("Iterator<T")
         Iterators.body {
-            "return FilterIterator<T>(this, predicate)"
+            "return filterPipeline(this, predicate)"
         }
     }
 
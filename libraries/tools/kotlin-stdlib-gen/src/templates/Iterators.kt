@@ -6,7 +6,7 @@ fun iterators() {
 
         returns("Iterator<T>")
         body {
-            "return FilterIterator<T>(this, predicate)"
+            "return filterPipeline(this, predicate)"
         }
     }
 
@@ -26,7 +26,7 @@ fun iterators() {
         returns("Iterator<T>")
 
         body {
-            "return FilterNotNullIterator(this)"
+            "return filterNotNullPipeline(this)"
         }
     }
 
@@ -36,7 +36,7 @@ fun iterators() {
         returns("Iterator<R>")
 
         body {
-            "return MapIterator<T, R>(this, transform)"
+            "return mapPipeline(this, transform)"
         }
     }
 
@@ -83,7 +83,7 @@ fun iterators() {
         returns("Iterator<T>")
 
         body {
-            "return TakeWhileIterator<T>(this, predicate)"
+            "return takeWhilePipeline(this, predicate)"
         }
     }
 
@@ -20,9 +20,9 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 
 @AssertInvisibleInResolver
 public class ByteProgression implements Progression<Byte> {
-    private final byte start;
-    private final byte end;
-    private final int increment;
+    public final byte start;
+    public final byte end;
+    public final int increment;
 
     public ByteProgression(byte start, byte end, int increment) {
         if (increment == 0) {
@@ -22,8 +22,8 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 public final class ByteRange implements Range<Byte>, Progression<Byte> {
     public static final ByteRange EMPTY = new ByteRange((byte) 1, (byte) 0);
 
-    private final byte start;
-    private final byte end;
+    public final byte start;
+    public final byte end;
 
     public ByteRange(byte start, byte end) {
         this.start = start;
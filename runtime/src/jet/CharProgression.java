@@ -20,9 +20,9 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 
 @AssertInvisibleInResolver
 public class CharProgression implements Progression<Character> {
-    private final char start;
-    private final char end;
-    private final int increment;
+    public final char start;
+    public final char end;
+    public final int increment;
 
     public CharProgression(char start, char end, int increment) {
         if (increment == 0) {
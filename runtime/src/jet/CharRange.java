@@ -22,8 +22,8 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 public final class CharRange implements Range<Character>, Progression<Character> {
     public static final CharRange EMPTY = new CharRange((char) 1, (char) 0);
 
-    private final char start;
-    private final char end;
+    public final char start;
+    public final char end;
 
     public CharRange(char start, char end) {
         this.start = start;
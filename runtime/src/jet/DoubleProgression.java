@@ -20,9 +20,9 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 
 @AssertInvisibleInResolver
 public class DoubleProgression implements Progression<Double> {
-    private final double start;
-    private final double end;
-    private final double increment;
+    public final double start;
+    public final double end;
+    public final double increment;
 
     public DoubleProgression(double start, double end, double increment) {
         if (Double.isNaN(increment)) {
@@ -22,8 +22,8 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 public final class DoubleRange implements Range<Double>, Progression<Double> {
     public static final DoubleRange EMPTY = new DoubleRange(1, 0);
 
-    private final double start;
-    private final double end;
+    public final double start;
+    public final double end;
 
     public DoubleRange(double start, double end) {
         this.start = start;
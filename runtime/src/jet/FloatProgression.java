@@ -20,9 +20,9 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 
 @AssertInvisibleInResolver
 public class FloatProgression implements Progression<Float> {
-    private final float start;
-    private final float end;
-    private final float increment;
+    public final float start;
+    public final float end;
+    public final float increment;
 
     public FloatProgression(float start, float end, float increment) {
         if (Float.isNaN(increment)) {
@@ -22,8 +22,8 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 public final class FloatRange implements Range<Float>, Progression<Float> {
     public static final FloatRange EMPTY = new FloatRange(1, 0);
 
-    private final float start;
-    private final float end;
+    public final float start;
+    public final float end;
 
     public FloatRange(float start, float end) {
         this.start = start;
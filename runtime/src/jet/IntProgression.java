@@ -20,9 +20,9 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 
 @AssertInvisibleInResolver
 public class IntProgression implements Progression<Integer> {
-    private final int start;
-    private final int end;
-    private final int increment;
+    public final int start;
+    public final int end;
+    public final int increment;
 
     public IntProgression(int start, int end, int increment) {
         if (increment == 0) {
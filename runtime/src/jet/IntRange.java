@@ -22,8 +22,8 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 public final class IntRange implements Range<Integer>, Progression<Integer> {
     public static final IntRange EMPTY = new IntRange(1, 0);
 
-    private final int start;
-    private final int end;
+    public final int start;
+    public final int end;
 
     public IntRange(int start, int end) {
         this.start = start;
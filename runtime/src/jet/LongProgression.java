@@ -20,9 +20,9 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 
 @AssertInvisibleInResolver
 public class LongProgression implements Progression<Long> {
-    private final long start;
-    private final long end;
-    private final long increment;
+    public final long start;
+    public final long end;
+    public final long increment;
 
     public LongProgression(long start, long end, long increment) {
         if (increment == 0) {
@@ -22,8 +22,8 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 public final class LongRange implements Range<Long>, Progression<Long> {
     public static final LongRange EMPTY = new LongRange(1, 0);
 
-    private final long start;
-    private final long end;
+    public final long start;
+    public final long end;
 
     public LongRange(long start, long end) {
         this.start = start;
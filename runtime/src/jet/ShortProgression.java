@@ -20,9 +20,9 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 
 @AssertInvisibleInResolver
 public class ShortProgression implements Progression<Short> {
-    private final short start;
-    private final short end;
-    private final int increment;
+    public final short start;
+    public final short end;
+    public final int increment;
 
     public ShortProgression(short start, short end, int increment) {
         if (increment == 0) {
@@ -22,8 +22,8 @@ import org.jetbrains.jet.rt.annotation.AssertInvisibleInResolver;
 public final class ShortRange implements Range<Short>, Progression<Short> {
     public static final ShortRange EMPTY = new ShortRange((short) 1, (short) 0);
 
-    private final short start;
-    private final short end;
+    public final short start;
+    public final short end;
 
     public ShortRange(short start, short end) {
         this.start = start;
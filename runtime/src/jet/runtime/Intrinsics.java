@@ -33,39 +33,47 @@ public class Intrinsics {
         throw new JetNullPointerException();
     }
 
+    // The checks below are called from the generated code very often, so they are kept small enough to be inlined by the JIT
+    // and the exceptions are created in separate methods
+
     public static void checkReturnedValueIsNotNull(Object value, String className, String methodName) {
         if (value == null) {
-            IllegalStateException exception =
-                    new IllegalStateException("Method specified as non-null returned null: " + className + "." + methodName);
-            throw sanitizeStackTrace(exception);
+            throwIllegalState("Method specified as non-null returned null: " + className + "." + methodName);
         }
     }
 
     public static void checkFieldIsNotNull(Object value, String className, String fieldName) {
         if (value == null) {
-            IllegalStateException exception =
-                    new IllegalStateException("Field specified as non-null contains null: " + className + "." + fieldName);
-            throw sanitizeStackTrace(exception);
+            throwIllegalState("Field specified as non-null contains null: " + className + "." + fieldName);
         }
     }
 
     public static void checkParameterIsNotNull(Object value, String paramName) {
         if (value == null) {
-            StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
-
-            // #0 is Thread.getStackTrace(), #1 is Intrinsics.checkParameterIsNotNull, #2 is our caller
-            StackTraceElement caller = stackTraceElements[2];
-            String className = caller.getClassName();
-            String methodName = caller.getMethodName();
-
-            IllegalArgumentException exception =
-                    new IllegalArgumentException("Parameter specified as non-null contains null: " +
-                                                 "method " + className + "." + methodName +
-                                                 ", parameter " + paramName);
-            throw sanitizeStackTrace(exception);
+            throwParameterIsNullException(paramName);
         }
     }
 
+    private static void throwIllegalState(String message) {
+        throw sanitizeStackTrace(new IllegalStateException(message));
+    }
+
+    private static void throwParameterIsNullException(String paramName) {
+        StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
+
+        // #0 is Thread.getStackTrace(), #1 is Intrinsics.throwParameterIsNullException, #2 is Intrinsics.checkParameterIsNotNull,
+        // #3 is our caller
+        StackTraceElement caller = stackTraceElements[3];
+        String className = caller.getClassName();
+        String methodName = caller.getMethodName();
+
+        IllegalArgumentException exception =
+                new IllegalArgumentException("Parameter specified as non-null contains null: " +
+                                             "method " + className + "." + methodName +
+                                             ", parameter " + paramName);
+        throw sanitizeStackTrace(exception);
+    }
+
     public static <T> Class<T> getJavaClass(T self) {
         return (Class<T>) self.getClass();
     }
@@ -120,6 +128,10 @@ public class Intrinsics {
         }
     }
 
+    /**
+     * Not used by the compiler anymore, kept for the code compiled by the previous versions
+     */
+    @Deprecated
     public static class SpreadBuilder extends ArrayList {
         public void addSpread(Object array) {
             if (array != null) {